@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dolphin.seekbar.CursorAnimator;
+
+/**
+ * Per-frame cost of advancing every cursor animation, with a fake clock
+ * moving 16ms per frame so that every run sees the same frames. Every frame
+ * also retargets one cursor, as a click or push during an animation does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CursorAnimatorBenchmark {
+
+    static final int FRAME_COUNT = 1024;
+
+    static final int FRAME_TIME = 16;
+
+    static final int DURATION = 100;
+
+    @Param({ "2", "8", "64" })
+    public int cursorCount;
+
+    private final FrameClock mClock = new FrameClock();
+
+    private CursorAnimator mAnimator;
+
+    private static class FrameClock implements CursorAnimator.Clock {
+        long mNow;
+
+        @Override
+        public long uptimeMillis() {
+            return mNow;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mAnimator = new CursorAnimator(cursorCount, mClock);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public float retargetAndStep() {
+        final CursorAnimator animator = mAnimator;
+        final int cursorCount = this.cursorCount;
+        float sum = 0;
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            final int cursor = frame % cursorCount;
+            animator.animateTo(cursor, animator.getValue(cursor),
+                    (frame & 7) * 10, DURATION);
+
+            mClock.mNow += FRAME_TIME;
+            animator.step();
+            sum += animator.getValue(animator.getChangedLast());
+        }
+        return sum;
+    }
+}
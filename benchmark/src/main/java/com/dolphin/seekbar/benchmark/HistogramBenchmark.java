@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dolphin.seekbar.Histogram;
+
+/**
+ * Per-value cost of bucketing everything again compared to an incremental
+ * update, neither of them publishing. Cost of publishing a snapshot, which
+ * copies every bucket, is measured on its own: an update of n values costs
+ * n times the update score plus one publish.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistogramBenchmark {
+
+    static final int VALUE_COUNT = 1 << 20;
+
+    static final int UPDATE_COUNT = 1024;
+
+    @Param({ "256", "4096" })
+    public int bucketCount;
+
+    private Histogram mHistogram;
+    private double[] mValues;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mValues = new double[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            // Skewed like prices.
+            mValues[i] = Math.exp(random.nextGaussian()) * 100;
+        }
+
+        mHistogram = new Histogram(0, 1000, bucketCount);
+        mHistogram.add(mValues, 0, VALUE_COUNT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUE_COUNT)
+    public Histogram rebucket() {
+        final Histogram histogram = mHistogram;
+        histogram.clear();
+        histogram.add(mValues, 0, VALUE_COUNT);
+        return histogram;
+    }
+
+    /**
+     * Every updated value is removed from its old bucket and added to its
+     * new one.
+     */
+    @Benchmark
+    @OperationsPerInvocation(UPDATE_COUNT)
+    public Histogram incrementalUpdate() {
+        final Histogram histogram = mHistogram;
+        histogram.remove(mValues, 0, UPDATE_COUNT);
+        histogram.add(mValues, 0, UPDATE_COUNT);
+        return histogram;
+    }
+
+    @Benchmark
+    public Histogram.Snapshot publish() {
+        return mHistogram.publish();
+    }
+}
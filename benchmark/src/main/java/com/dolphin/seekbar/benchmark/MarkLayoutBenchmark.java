@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dolphin.seekbar.MarkLayout;
+
+/**
+ * Cost of laying out text marks and of finding the clicked mark, as done
+ * in onMeasure and handleTouchDown of RangeSeekbar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarkLayoutBenchmark {
+
+    static final int TOUCH_COUNT = 1024;
+
+    static final int VIEW_WIDTH = 1080;
+    static final int CURSOR_WIDTH = 60;
+    static final int CLICK_TOP = 0;
+    static final int CLICK_BOTTOM = 80;
+
+    @Param({ "10", "1000", "100000" })
+    public int markCount;
+
+    private MarkLayout mLayout;
+
+    private float[] mTextWidths;
+    private float mSeekbarLeft;
+    private float mPartLength;
+    private float mLastTextRight;
+
+    private int[] mTouchX;
+    private int[] mTouchY;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+
+        mTextWidths = new float[markCount];
+        for (int i = 0; i < markCount; i++) {
+            mTextWidths[i] = 12f + random.nextInt(40);
+        }
+
+        mSeekbarLeft = CURSOR_WIDTH / 2;
+        final float seekbarRight = VIEW_WIDTH - CURSOR_WIDTH / 2;
+        mPartLength = (seekbarRight - mSeekbarLeft) / (markCount - 1);
+        mLastTextRight = VIEW_WIDTH;
+
+        mLayout = new MarkLayout();
+        layout();
+
+        mTouchX = new int[TOUCH_COUNT];
+        mTouchY = new int[TOUCH_COUNT];
+        for (int i = 0; i < TOUCH_COUNT; i++) {
+            mTouchX[i] = random.nextInt(VIEW_WIDTH);
+            mTouchY[i] = random.nextInt(CLICK_BOTTOM * 2);
+        }
+    }
+
+    @Benchmark
+    public MarkLayout layout() {
+        mLayout.layout(mTextWidths, markCount, mSeekbarLeft, mPartLength,
+                mLastTextRight, CLICK_TOP, CLICK_BOTTOM);
+        return mLayout;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOUCH_COUNT)
+    public void hitTest(Blackhole bh) {
+        final MarkLayout layout = mLayout;
+        for (int i = 0; i < TOUCH_COUNT; i++) {
+            bh.consume(layout.findClickIndex(mTouchX[i], mTouchY[i]));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dolphin.seekbar.RangeModel;
+
+/**
+ * Per-event cost of cursor movement and snapping. Run with "-prof gc" to
+ * check that both paths do not allocate. Cost of moving should not depend on
+ * count of cursors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RangeModelBenchmark {
+
+    /**
+     * Count of events in one synthetic stream.
+     */
+    static final int STREAM_LENGTH = 1024;
+
+    @Param({ "10", "1000", "100000" })
+    public int markCount;
+
+    @Param({ "2", "8" })
+    public int cursorCount;
+
+    private RangeModel mModel;
+
+    /**
+     * Movement of every event in mark space, a random walk of a few pixels.
+     */
+    private float[] mMoveStream;
+
+    /**
+     * Fractional positions to snap from.
+     */
+    private float[] mSnapPositions;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final float partLength = Math.max(1f, 1080f / (markCount - 1));
+
+        mModel = new RangeModel(markCount, cursorCount);
+        mModel.setCursorGap(30f / partLength);
+
+        mMoveStream = new float[STREAM_LENGTH];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            mMoveStream[i] = (random.nextFloat() * 16f - 8f) / partLength;
+        }
+
+        mSnapPositions = new float[STREAM_LENGTH];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            mSnapPositions[i] = random.nextFloat() * (markCount - 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_LENGTH)
+    public void moveStream(Blackhole bh) {
+        final RangeModel model = mModel;
+        final float[] stream = mMoveStream;
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            bh.consume(model.move(i % cursorCount, stream[i], false, false));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_LENGTH)
+    public void snap(Blackhole bh) {
+        final RangeModel model = mModel;
+        final float[] positions = mSnapPositions;
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            model.setIndex(0, positions[i]);
+            model.snap(0);
+            bh.consume(model.getNextIndex(0));
+        }
+    }
+}
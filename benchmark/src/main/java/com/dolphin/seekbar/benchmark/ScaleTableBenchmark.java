@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dolphin.seekbar.LinearScale;
+import com.dolphin.seekbar.LogScale;
+import com.dolphin.seekbar.PiecewiseLinearScale;
+import com.dolphin.seekbar.Scale;
+import com.dolphin.seekbar.ScaleTable;
+
+/**
+ * Per-event cost of mapping between mark space and seekbar through
+ * ScaleTable, which every touch move and frame does twice per cursor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScaleTableBenchmark {
+
+    static final int LOOKUP_COUNT = 1024;
+
+    @Param({ "linear", "log", "piecewise" })
+    public String scale;
+
+    private ScaleTable mTable;
+    private float[] mValues;
+
+    @Setup
+    public void setUp() {
+        final Scale s;
+        if ("log".equals(scale)) {
+            s = new LogScale(99);
+        } else if ("piecewise".equals(scale)) {
+            s = new PiecewiseLinearScale(new float[] { 0, 0.1f, 1 },
+                    new float[] { 0, 0.5f, 1 });
+        } else {
+            s = LinearScale.INSTANCE;
+        }
+
+        mTable = new ScaleTable();
+        mTable.build(s, 1080);
+
+        final Random random = new Random(42);
+        mValues = new float[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            mValues[i] = random.nextFloat();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void roundTrip(Blackhole bh) {
+        final ScaleTable table = mTable;
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            bh.consume(table.toFraction(table.toPosition(mValues[i])));
+        }
+    }
+}
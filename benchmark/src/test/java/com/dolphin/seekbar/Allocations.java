@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the current thread, from the HotSpot extension of
+ * ThreadMXBean.
+ */
+final class Allocations {
+
+    private static final int WARMUP_ROUNDS = 50;
+
+    private Allocations() {
+    }
+
+    static boolean isSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                && bean().isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * Run task a few rounds so that it is compiled, then once more counting
+     * bytes it allocates.
+     */
+    static long measure(Runnable task) {
+        final com.sun.management.ThreadMXBean bean = bean();
+        bean.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+
+        // Reading the counter may allocate by itself.
+        final long first = bean.getThreadAllocatedBytes(threadId);
+        final long overhead = bean.getThreadAllocatedBytes(threadId) - first;
+
+        final long start = bean.getThreadAllocatedBytes(threadId);
+        task.run();
+        return bean.getThreadAllocatedBytes(threadId) - start - overhead;
+    }
+
+    private static com.sun.management.ThreadMXBean bean() {
+        return (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+    }
+}
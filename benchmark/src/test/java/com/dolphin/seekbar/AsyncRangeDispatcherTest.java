@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncRangeDispatcherTest {
+
+    /**
+     * Runs queued tasks only when asked, on the calling thread.
+     */
+    private static class ManualExecutor implements Executor {
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<Runnable>();
+
+        @Override
+        public void execute(Runnable task) {
+            mTasks.add(task);
+        }
+
+        int size() {
+            return mTasks.size();
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                mTasks.poll().run();
+            }
+        }
+    }
+
+    /**
+     * Sums locations. Hook runs inside compute, e.g. to submit a newer
+     * range while the worker is busy.
+     */
+    private class SumCallback implements
+            AsyncRangeDispatcher.Callback<Integer> {
+        final List<int[]> mComputed = new ArrayList<int[]>();
+        final List<int[]> mDelivered = new ArrayList<int[]>();
+        final List<Integer> mResults = new ArrayList<Integer>();
+        final List<AsyncRangeDispatcher.Token> mTokens = new ArrayList<AsyncRangeDispatcher.Token>();
+        Runnable mHook;
+
+        @Override
+        public Integer compute(int[] locations,
+                AsyncRangeDispatcher.Token token) {
+            mComputed.add(locations.clone());
+            mTokens.add(token);
+            final Runnable hook = mHook;
+            mHook = null;
+            if (hook != null) {
+                hook.run();
+            }
+            int sum = 0;
+            for (int location : locations) {
+                sum += location;
+            }
+            return sum;
+        }
+
+        @Override
+        public void onResult(int[] locations, Integer result) {
+            mDelivered.add(locations.clone());
+            mResults.add(result);
+        }
+    }
+
+    private ManualExecutor mWorker;
+    private ManualExecutor mMain;
+    private SumCallback mCallback;
+    private AsyncRangeDispatcher<Integer> mDispatcher;
+
+    @Before
+    public void setUp() {
+        mWorker = new ManualExecutor();
+        mMain = new ManualExecutor();
+        mCallback = new SumCallback();
+        mDispatcher = new AsyncRangeDispatcher<Integer>(mWorker, mMain,
+                mCallback);
+    }
+
+    @Test
+    public void onlyLatestRangeIsComputed() {
+        final int[] locations = { 0, 1 };
+        for (int i = 0; i < 10; i++) {
+            locations[1] = i;
+            mDispatcher.submit(locations);
+        }
+        // Locations are copied, and one task is queued however many
+        // ranges come.
+        locations[1] = 100;
+        assertEquals(1, mWorker.size());
+
+        mWorker.runAll();
+        mMain.runAll();
+        assertEquals(1, mCallback.mComputed.size());
+        assertArrayEquals(new int[] { 0, 9 }, mCallback.mComputed.get(0));
+        assertEquals(1, mCallback.mDelivered.size());
+        assertEquals(Integer.valueOf(9), mCallback.mResults.get(0));
+    }
+
+    @Test
+    public void newerRangeCancelsRunningOne() {
+        mCallback.mHook = new Runnable() {
+            @Override
+            public void run() {
+                mDispatcher.submit(new int[] { 3, 4 });
+            }
+        };
+        mDispatcher.submit(new int[] { 1, 2 });
+        mWorker.runAll();
+        mMain.runAll();
+
+        assertEquals(2, mCallback.mComputed.size());
+        assertTrue(mCallback.mTokens.get(0).isCancelled());
+        assertFalse(mCallback.mTokens.get(1).isCancelled());
+        assertEquals(1, mCallback.mDelivered.size());
+        assertArrayEquals(new int[] { 3, 4 }, mCallback.mDelivered.get(0));
+    }
+
+    @Test
+    public void staleResultIsDropped() {
+        mDispatcher.submit(new int[] { 1, 2 });
+        mWorker.runAll();
+        assertEquals(1, mMain.size());
+
+        // Result of the first range is waiting for the main thread when a
+        // newer range comes.
+        mDispatcher.submit(new int[] { 5, 6 });
+        mMain.runAll();
+        assertTrue(mCallback.mDelivered.isEmpty());
+
+        mWorker.runAll();
+        mMain.runAll();
+        assertEquals(1, mCallback.mDelivered.size());
+        assertArrayEquals(new int[] { 5, 6 }, mCallback.mDelivered.get(0));
+    }
+
+    @Test
+    public void cancelDropsPendingAndRunningRanges() {
+        mDispatcher.submit(new int[] { 1, 2 });
+        mDispatcher.cancel();
+        mWorker.runAll();
+        assertTrue(mCallback.mComputed.isEmpty());
+
+        mDispatcher.submit(new int[] { 1, 2 });
+        mWorker.runAll();
+        mDispatcher.cancel();
+        mMain.runAll();
+        assertTrue(mCallback.mDelivered.isEmpty());
+
+        // Still usable afterwards.
+        mDispatcher.submit(new int[] { 7, 8 });
+        mWorker.runAll();
+        mMain.runAll();
+        assertArrayEquals(new int[] { 7, 8 }, mCallback.mDelivered.get(0));
+    }
+
+    @Test
+    public void rangeSubmittedDuringFailedWorkIsStillDelivered() {
+        final AsyncRangeDispatcher<Integer> dispatcher = new AsyncRangeDispatcher<Integer>(
+                mWorker, mMain, new AsyncRangeDispatcher.Callback<Integer>() {
+                    private boolean mFailed;
+
+                    @Override
+                    public Integer compute(int[] locations,
+                            AsyncRangeDispatcher.Token token) {
+                        if (!mFailed) {
+                            mFailed = true;
+                            mDispatcher.submit(new int[] { 3, 4 });
+                            throw new IllegalStateException("Broken");
+                        }
+                        return locations[0] + locations[1];
+                    }
+
+                    @Override
+                    public void onResult(int[] locations, Integer result) {
+                        mCallback.onResult(locations, result);
+                    }
+                });
+        mDispatcher = dispatcher;
+
+        dispatcher.submit(new int[] { 1, 2 });
+        try {
+            mWorker.runAll();
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected, thrown to the worker.
+        }
+
+        assertEquals(1, mWorker.size());
+        mWorker.runAll();
+        mMain.runAll();
+        assertEquals(1, mCallback.mDelivered.size());
+        assertArrayEquals(new int[] { 3, 4 }, mCallback.mDelivered.get(0));
+        assertEquals(Integer.valueOf(7), mCallback.mResults.get(0));
+    }
+
+    @Test
+    public void failedWorkWithNothingPendingAllowsNewRanges() {
+        mCallback.mHook = new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("Broken");
+            }
+        };
+        mDispatcher.submit(new int[] { 1, 2 });
+        try {
+            mWorker.runAll();
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected, thrown to the worker.
+        }
+        assertEquals(0, mWorker.size());
+
+        mDispatcher.submit(new int[] { 3, 4 });
+        assertEquals(1, mWorker.size());
+        mWorker.runAll();
+        mMain.runAll();
+        assertArrayEquals(new int[] { 3, 4 }, mCallback.mDelivered.get(0));
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ColumnSliceTest {
+
+    private static final double FIRST_KEY = 100;
+    private static final double KEY_STEP = 2.5;
+
+    /**
+     * Sorted keys of about 40 marks, with duplicates and runs of equal keys.
+     */
+    private static double[] randomDoubles(Random random, int length) {
+        final double[] column = new double[length];
+        for (int i = 0; i < length; i++) {
+            column[i] = i > 0 && random.nextInt(4) == 0 ? column[i - 1]
+                    : FIRST_KEY - 10 + random.nextDouble() * 120;
+        }
+        Arrays.sort(column);
+        return column;
+    }
+
+    private static long[] randomLongs(Random random, int length) {
+        final long[] column = new long[length];
+        for (int i = 0; i < length; i++) {
+            column[i] = i > 0 && random.nextInt(4) == 0 ? column[i - 1]
+                    : (long) FIRST_KEY - 10 + random.nextInt(120);
+        }
+        Arrays.sort(column);
+        return column;
+    }
+
+    /**
+     * Next position of a cursor: small moves from where it is in both
+     * directions, and sometimes a jump far away.
+     */
+    private static float nextPosition(Random random, float position) {
+        if (random.nextInt(5) == 0) {
+            return random.nextInt(60) - 10 + random.nextFloat();
+        }
+        final float delta = random.nextBoolean() ? random.nextInt(3) : random
+                .nextFloat();
+        return random.nextBoolean() ? position + delta : position - delta;
+    }
+
+    /**
+     * Check offset and length of slice over column[offset, offset + count)
+     * by looking at every row.
+     */
+    private static void assertMatchesScan(ColumnSlice slice, long[] longs,
+            double[] doubles, int offset, int count, float from, float to) {
+        final double low = FIRST_KEY + from * KEY_STEP;
+        final double high = FIRST_KEY + to * KEY_STEP;
+        int start = offset;
+        int end = offset;
+        for (int i = offset; i < offset + count; i++) {
+            final boolean before;
+            final boolean after;
+            if (longs != null) {
+                before = longs[i] < (long) Math.ceil(low);
+                after = longs[i] > (long) Math.floor(high);
+            } else {
+                before = doubles[i] < low;
+                after = doubles[i] > high;
+            }
+            if (before) {
+                start = i + 1;
+            }
+            if (!after) {
+                end = i + 1;
+            }
+        }
+
+        final String message = "select(" + from + ", " + to + ")";
+        final int length = Math.max(0, end - start);
+        assertEquals(message, length, slice.getLength());
+        if (length > 0) {
+            assertEquals(message, start, slice.getOffset());
+        }
+    }
+
+    private static void assertRandomSelections(Random random, long[] longs,
+            double[] doubles, int length) {
+        final int offset = random.nextInt(length / 4 + 1);
+        final int count = random.nextInt(length - offset + 1);
+        final ColumnSlice slice = longs != null ? ColumnSlice.ofLongs(longs,
+                offset, count, FIRST_KEY, KEY_STEP) : ColumnSlice.ofDoubles(
+                doubles, offset, count, FIRST_KEY, KEY_STEP);
+
+        float from = random.nextInt(40);
+        float to = random.nextInt(40);
+        for (int i = 0; i < 200; i++) {
+            // Often only one cursor moves.
+            if (random.nextInt(3) != 0) {
+                from = nextPosition(random, from);
+            }
+            if (random.nextInt(3) != 0) {
+                to = nextPosition(random, to);
+            }
+            slice.select(from, to);
+            assertMatchesScan(slice, longs, doubles, offset, count, from, to);
+        }
+    }
+
+    @Test
+    public void randomDoubleSelectionsMatchLinearScan() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            final int length = 1 + random.nextInt(random.nextBoolean() ? 20
+                    : 2000);
+            assertRandomSelections(random, null,
+                    randomDoubles(random, length), length);
+        }
+    }
+
+    @Test
+    public void randomLongSelectionsMatchLinearScan() {
+        final Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            final int length = 1 + random.nextInt(random.nextBoolean() ? 20
+                    : 2000);
+            assertRandomSelections(random, randomLongs(random, length), null,
+                    length);
+        }
+    }
+
+    @Test
+    public void sliceOfSubRangeSharesColumn() {
+        // Keys 100, 102.5, 105, ... at marks 0, 1, 2, ...
+        final long[] column = { 95, 100, 101, 102, 103, 105, 105, 110, 200 };
+        final ColumnSlice slice = ColumnSlice.ofLongs(column, 1, 7,
+                FIRST_KEY, KEY_STEP);
+        assertTrue(slice.select(0.5f, 2));
+        assertEquals(3, slice.getOffset());
+        assertEquals(4, slice.getLength());
+        assertSame(column, slice.getLongColumn());
+
+        final LongBuffer buffer = slice.asLongBuffer();
+        assertEquals(4, buffer.remaining());
+        assertEquals(102, buffer.get(0));
+        assertEquals(105, buffer.get(3));
+
+        // Rows outside the sub-range are never selected.
+        slice.select(-100, 100);
+        assertEquals(1, slice.getOffset());
+        assertEquals(7, slice.getLength());
+        assertFalse(slice.select(-100, 100));
+    }
+
+    @Test
+    public void emptyAndCrossedSelections() {
+        final double[] column = { 100, 105, 110 };
+        final ColumnSlice slice = ColumnSlice.ofDoubles(column, 0, 3,
+                FIRST_KEY, KEY_STEP);
+        slice.select(0.5f, 1.5f);
+        assertEquals(0, slice.getLength());
+        slice.select(3, 1);
+        assertEquals(0, slice.getLength());
+        slice.select(5, 10);
+        assertEquals(0, slice.getLength());
+        slice.select(-10, -1);
+        assertEquals(0, slice.getLength());
+        slice.select(2, 2);
+        assertEquals(1, slice.getLength());
+        assertEquals(1, slice.getOffset());
+        assertEquals(0, slice.asDoubleBuffer().position());
+
+        final ColumnSlice empty = ColumnSlice.ofDoubles(column, 2, 0,
+                FIRST_KEY, KEY_STEP);
+        empty.select(-10, 10);
+        assertEquals(0, empty.getLength());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CountIndexTest {
+
+    /**
+     * Count of keys[0, count) from key of one position to key of another,
+     * inclusive, by looking at every key.
+     */
+    private static int scan(double[] keys, int count, double firstKey,
+            double keyStep, float from, float to) {
+        final double low = firstKey + from * keyStep;
+        final double high = firstKey + to * keyStep;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (keys[i] >= low && keys[i] <= high) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Sorted keys around marks: exactly on marks, between them, duplicated,
+     * and some before the first mark and after the last one.
+     */
+    private static double[] randomKeys(Random random, int length,
+            int markCount) {
+        final double[] keys = new double[length];
+        for (int i = 0; i < length; i++) {
+            final double key = random.nextInt(markCount + 20) - 10;
+            keys[i] = random.nextBoolean() ? key : key + random.nextDouble();
+            if (i > 0 && random.nextInt(8) == 0) {
+                keys[i] = keys[i - 1];
+            }
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static float randomPosition(Random random, int markCount) {
+        final float position = random.nextInt(markCount + 6) - 3;
+        return random.nextBoolean() ? position : position
+                + random.nextFloat();
+    }
+
+    private static void assertMatchesScan(Random random, int markCount,
+            int length, int rounds) {
+        final double[] keys = randomKeys(random, length, markCount);
+        final int count = length - random.nextInt(length / 4 + 1);
+        final CountIndex index = CountIndex.forMarks(markCount, keys, count);
+        for (int i = 0; i < rounds; i++) {
+            final float from = randomPosition(random, markCount);
+            final float to = random.nextInt(4) == 0 ? from : randomPosition(
+                    random, markCount);
+            assertEquals("count(" + from + ", " + to + ")",
+                    from > to ? 0 : scan(keys, count, 0, 1, from, to),
+                    index.count(from, to));
+        }
+    }
+
+    @Test
+    public void keysOnAndBetweenMarks() {
+        final double[] keys = { -2, 0, 0, 0.5, 1, 2, 2, 2, 2.25, 4, 7 };
+        final CountIndex index = CountIndex.forMarks(5, keys, keys.length);
+
+        assertEquals(2, index.count(0, 0));
+        assertEquals(4, index.count(0, 1));
+        assertEquals(2, index.count(0.25f, 1));
+        assertEquals(4, index.count(2, 2.5f));
+        assertEquals(0, index.count(2.5f, 3.75f));
+        assertEquals(1, index.count(3, 4));
+
+        // Before the first mark and after the last one.
+        assertEquals(3, index.count(-3, 0));
+        assertEquals(2, index.count(4, 10));
+        assertEquals(keys.length, index.count(-100, 100));
+        assertEquals(0, index.count(3, 2));
+    }
+
+    @Test
+    public void onlyCountedKeysAreUsed() {
+        final double[] keys = { 0, 1, 2, 3, 4 };
+        final CountIndex index = CountIndex.forMarks(5, keys, 3);
+        assertEquals(3, index.getCount());
+        assertEquals(3, index.count(0, 4));
+        assertEquals(0, index.count(3, 4));
+    }
+
+    @Test
+    public void keysOfNumericRange() {
+        final NumericRange range = new NumericRange(10, 20, 0.5);
+        final double[] keys = { 9, 10, 10.25, 10.5, 12.5, 12.5, 19.75, 20,
+                21 };
+        final CountIndex index = CountIndex.forRange(range, keys,
+                keys.length);
+        assertEquals(range.getCount(), index.getMarkCount());
+        assertEquals(3, index.count(0, 1));
+        assertEquals(1, index.count(1, 1));
+        assertEquals(2, index.count(5, 5));
+        assertEquals(2, index.count(19.5f, 20));
+        assertEquals(0, index.count(1.5f, 4.5f));
+    }
+
+    @Test
+    public void randomKeysMatchLinearScan() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            assertMatchesScan(random, 1 + random.nextInt(40),
+                    1 + random.nextInt(100), 50);
+        }
+    }
+
+    @Test
+    public void randomKeysMatchLinearScanWhenMarksShareBuckets() {
+        // More marks than buckets, so a bucket covers a few marks.
+        final Random random = new Random(7);
+        assertMatchesScan(random, 200000, 5000, 20000);
+        assertMatchesScan(random, 65537, 300, 5000);
+    }
+}
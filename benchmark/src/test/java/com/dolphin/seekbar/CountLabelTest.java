@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+public class CountLabelTest {
+
+    private static String format(String format, int count) {
+        final CountLabel label = new CountLabel(format);
+        label.setCount(count);
+        return label.toString();
+    }
+
+    @Test
+    public void formatsLikeStringFormat() {
+        final int[] counts = { 0, 7, -7, 10, 1234567, Integer.MAX_VALUE,
+                Integer.MIN_VALUE };
+        final String[] formats = { "%d", "%d items", "Found %d", "%d%%",
+                "%% %d %%" };
+        for (String format : formats) {
+            for (int count : counts) {
+                assertEquals(String.format(format, count),
+                        format(format, count));
+            }
+        }
+    }
+
+    @Test
+    public void shorterCountReplacesLongerOne() {
+        final CountLabel label = new CountLabel("%d items");
+        label.setCount(12345);
+        label.setCount(3);
+        assertEquals("3 items", label.toString());
+        assertEquals(7, label.length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatWithoutCountIsRejected() {
+        new CountLabel("items");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatWithTwoCountsIsRejected() {
+        new CountLabel("%d of %d");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherConversionIsRejected() {
+        new CountLabel("%s items");
+    }
+
+    @Test
+    public void setCountDoesNotAllocate() {
+        assumeTrue(Allocations.isSupported());
+
+        final CountLabel label = new CountLabel("%d items");
+        assertEquals(0, Allocations.measure(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = -1000; i < 1000; i++) {
+                    label.setCount(i * 7919);
+                }
+            }
+        }));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CursorAnimatorTest {
+
+    private static final int DURATION = 100;
+
+    private long mNow;
+    private CursorAnimator mAnimator;
+
+    @Before
+    public void setUp() {
+        mNow = 1000;
+        mAnimator = new CursorAnimator(4, new CursorAnimator.Clock() {
+            @Override
+            public long uptimeMillis() {
+                return mNow;
+            }
+        });
+    }
+
+    @Test
+    public void decelerateAndLandExactlyOnTarget() {
+        mAnimator.animateTo(1, 0.3f, 7.1f, DURATION);
+        assertTrue(mAnimator.isRunning(1));
+
+        float last = 0.3f;
+        for (int i = 0; i < 9; i++) {
+            mNow += DURATION / 10;
+            assertTrue(mAnimator.step());
+            final float value = mAnimator.getValue(1);
+            assertTrue(value > last && value < 7.1f);
+            last = value;
+        }
+
+        mNow += DURATION / 10 + 7;
+        assertFalse(mAnimator.step());
+        assertEquals(7.1f, mAnimator.getValue(1), 0);
+        assertFalse(mAnimator.isRunning(1));
+        assertTrue(mAnimator.isChanged(1));
+
+        // A finished cursor is not updated any more.
+        mNow += DURATION;
+        assertFalse(mAnimator.step());
+        assertEquals(-1, mAnimator.getChangedFirst());
+        assertFalse(mAnimator.isChanged(1));
+        assertEquals(7.1f, mAnimator.getValue(1), 0);
+    }
+
+    @Test
+    public void halfTimeCoversThreeQuarters() {
+        mAnimator.animateTo(2, 0, 4, DURATION);
+        mNow += DURATION / 2;
+        assertTrue(mAnimator.step());
+        assertEquals(3, mAnimator.getValue(2), 1e-6f);
+    }
+
+    @Test
+    public void retargetStartsFromCurrentValue() {
+        mAnimator.animateTo(0, 0, 10, DURATION);
+        mNow += DURATION / 2;
+        mAnimator.step();
+        final float value = mAnimator.getValue(0);
+
+        mAnimator.animateTo(0, value, 2, DURATION);
+        assertEquals(2, mAnimator.getTarget(0), 0);
+        assertEquals(value, mAnimator.getValue(0), 0);
+
+        // Not finished at the end of the first animation.
+        mNow += DURATION / 2;
+        assertTrue(mAnimator.step());
+        assertTrue(mAnimator.getValue(0) < value);
+
+        mNow += DURATION / 2;
+        assertFalse(mAnimator.step());
+        assertEquals(2, mAnimator.getValue(0), 0);
+    }
+
+    @Test
+    public void zeroDurationLandsOnNextStep() {
+        mAnimator.animateTo(3, 1, 5, 0);
+        assertFalse(mAnimator.step());
+        assertEquals(5, mAnimator.getValue(3), 0);
+        assertEquals(3, mAnimator.getChangedFirst());
+        assertEquals(3, mAnimator.getChangedLast());
+    }
+
+    @Test
+    public void cancelStopsWhereCursorIs() {
+        mAnimator.animateTo(1, 0, 10, DURATION);
+        mNow += DURATION / 2;
+        mAnimator.step();
+        final float value = mAnimator.getValue(1);
+
+        mAnimator.cancel(1);
+        assertFalse(mAnimator.isRunning(1));
+        assertFalse(mAnimator.isRunning());
+        mNow += DURATION;
+        assertFalse(mAnimator.step());
+        assertEquals(value, mAnimator.getValue(1), 0);
+
+        // Canceling a stopped cursor changes nothing.
+        mAnimator.cancel(1);
+        mAnimator.animateTo(2, 0, 1, DURATION);
+        assertTrue(mAnimator.isRunning());
+    }
+
+    @Test
+    public void runningCountFollowsStartsRetargetsAndCancels() {
+        mAnimator.animateTo(0, 0, 1, DURATION);
+        mAnimator.animateTo(0, 0, 2, DURATION);
+        mAnimator.animateTo(3, 9, 8, DURATION * 2);
+        assertTrue(mAnimator.isRunning());
+
+        // Retargeting does not count twice: one cancel stops cursor 0.
+        mAnimator.cancel(0);
+        assertTrue(mAnimator.isRunning());
+        mNow += DURATION;
+        assertTrue(mAnimator.step());
+        assertEquals(3, mAnimator.getChangedFirst());
+        assertEquals(3, mAnimator.getChangedLast());
+
+        mNow += DURATION;
+        assertFalse(mAnimator.step());
+        assertFalse(mAnimator.isRunning());
+
+        mAnimator.animateTo(1, 0, 1, DURATION);
+        mAnimator.setCursorCount(2);
+        assertFalse(mAnimator.isRunning());
+        assertFalse(mAnimator.step());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DecimalLabelProviderTest {
+
+    private static String label(NumericRange range, int index) {
+        return new DecimalLabelProvider(range.getFractionDigits()).getLabel(
+                index, range.valueAt(index)).toString();
+    }
+
+    @Test
+    public void fractionDigitsFollowMinAndStep() {
+        assertEquals(0, new NumericRange(0, 100, 5).getFractionDigits());
+        assertEquals(0, new NumericRange(0, 1000, 100).getFractionDigits());
+        assertEquals(1, new NumericRange(0, 1, 0.1).getFractionDigits());
+        assertEquals(2, new NumericRange(0.05, 1, 0.1).getFractionDigits());
+        assertEquals(3, new NumericRange(0, 1, 0.125).getFractionDigits());
+    }
+
+    @Test
+    public void floatNoiseIsNotPrinted() {
+        final NumericRange range = new NumericRange(0, 1, 0.1);
+        assertEquals("0.0", label(range, 0));
+        assertEquals("0.3", label(range, 3));
+        assertEquals("0.7", label(range, 7));
+        assertEquals("1.0", label(range, 10));
+
+        final NumericRange cents = new NumericRange(-1, 1, 0.01);
+        assertEquals("-1.00", label(cents, 0));
+        assertEquals("-0.07", label(cents, 93));
+        assertEquals("0.00", label(cents, 100));
+        assertEquals("0.05", label(cents, 105));
+    }
+
+    @Test
+    public void integralStepsHaveNoFraction() {
+        final NumericRange range = new NumericRange(-50, 50, 5);
+        assertEquals("-50", label(range, 0));
+        assertEquals("0", label(range, 10));
+        assertEquals("35", label(range, 17));
+    }
+
+    @Test
+    public void hugeValuesFallBackToBigDecimal() {
+        final DecimalLabelProvider provider = new DecimalLabelProvider(2);
+        assertEquals("100000000000000000000.00",
+                provider.getLabel(0, 1e20).toString());
+        assertEquals("0.50000000000000000000",
+                new DecimalLabelProvider(20).getLabel(0, 0.5).toString());
+    }
+}
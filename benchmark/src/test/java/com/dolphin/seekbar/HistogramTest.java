@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+    private static long[] countsOf(Histogram.Snapshot snapshot) {
+        final long[] counts = new long[snapshot.getBucketCount()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = snapshot.getCount(i);
+        }
+        return counts;
+    }
+
+    @Test
+    public void valuesAreCountedInClampedBuckets() {
+        final Histogram histogram = new Histogram(0, 10, 5);
+        assertEquals(0, histogram.bucketOf(-3));
+        assertEquals(0, histogram.bucketOf(1.99));
+        assertEquals(1, histogram.bucketOf(2));
+        assertEquals(4, histogram.bucketOf(10));
+        assertEquals(4, histogram.bucketOf(1e9));
+
+        histogram.add(-3);
+        histogram.add(5);
+        histogram.add(new double[] { 0, 5.5, 9, 42 }, 1, 2);
+        histogram.add(new long[] { 100, 3, 4 }, 0, 3);
+        final Histogram.Snapshot snapshot = histogram.publish();
+        assertArrayEquals(new long[] { 1, 1, 3, 0, 2 }, countsOf(snapshot));
+        assertEquals(7, snapshot.getTotalCount());
+        assertEquals(3, snapshot.getMaxCount());
+        assertEquals(4, snapshot.getBucketStart(2), 0);
+        assertEquals(10, snapshot.getBucketStart(5), 0);
+    }
+
+    @Test
+    public void removeUndoesAdd() {
+        final Histogram histogram = new Histogram(0, 10, 5);
+        final double[] values = { 1, 3, 3.5, 7, 9.9 };
+        histogram.add(values, 0, values.length);
+        histogram.add(8L);
+        histogram.remove(values, 1, 3);
+        histogram.remove(8L);
+        assertArrayEquals(new long[] { 1, 0, 0, 0, 1 },
+                countsOf(histogram.publish()));
+
+        histogram.remove(new long[] { 1, 9 }, 0, 2);
+        assertEquals(0, histogram.publish().getTotalCount());
+    }
+
+    @Test
+    public void failedBatchChangesNothing() {
+        final Histogram histogram = new Histogram(0, 10, 5);
+        histogram.add(new double[] { 1, 3, 5 }, 0, 3);
+        final long[] before = countsOf(histogram.publish());
+
+        // Bucket of 3 is emptied by the batch itself before 3.5 comes.
+        try {
+            histogram.remove(new double[] { 1, 3, 3.5 }, 0, 3);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+        assertArrayEquals(before, countsOf(histogram.publish()));
+
+        try {
+            histogram.remove(new long[] { 5, 1, 9 }, 0, 3);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+        assertArrayEquals(before, countsOf(histogram.publish()));
+
+        try {
+            histogram.remove(new double[] { 1, Double.NaN }, 0, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+        try {
+            histogram.add(new double[] { 1, Double.NaN }, 0, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+        try {
+            histogram.add(new double[] { 1, 2 }, 1, 2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // Expected.
+        }
+        assertArrayEquals(before, countsOf(histogram.publish()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removingFromEmptyBucketIsRejected() {
+        new Histogram(0, 10, 5).remove(3);
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterUpdates() {
+        final Histogram histogram = new Histogram(0, 10, 5);
+        final Histogram.Snapshot[] published = new Histogram.Snapshot[1];
+        histogram.setOnPublishListener(new Histogram.OnPublishListener() {
+            @Override
+            public void onPublished(Histogram h, Histogram.Snapshot snapshot) {
+                published[0] = snapshot;
+            }
+        });
+
+        histogram.add(1);
+        final Histogram.Snapshot snapshot = histogram.publish();
+        assertSame(snapshot, histogram.getSnapshot());
+        assertSame(snapshot, published[0]);
+
+        histogram.add(1);
+        histogram.clear();
+        assertEquals(1, snapshot.getCount(0));
+        assertSame(snapshot, histogram.getSnapshot());
+        assertEquals(0, histogram.publish().getTotalCount());
+        assertEquals(1, snapshot.getTotalCount());
+    }
+
+    @Test
+    public void snapshotsAreConsistentWhileUpdatesContinue()
+            throws InterruptedException {
+        final Histogram histogram = new Histogram(0, 100, 10);
+        final AtomicBoolean stop = new AtomicBoolean();
+        final double[] pair = { 5, 95 };
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // Every batch adds one value to both end buckets.
+                while (!stop.get()) {
+                    histogram.add(pair, 0, 2);
+                }
+            }
+        });
+        writer.start();
+        try {
+            long lastTotal = 0;
+            for (int i = 0; i < 2000; i++) {
+                final Histogram.Snapshot snapshot = histogram.publish();
+                final long first = snapshot.getCount(0);
+                assertEquals(first, snapshot.getCount(9));
+                assertEquals(2 * first, snapshot.getTotalCount());
+                assertTrue(snapshot.getTotalCount() >= lastTotal);
+                lastTotal = snapshot.getTotalCount();
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+    }
+}
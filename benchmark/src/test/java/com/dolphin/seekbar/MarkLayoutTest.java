@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MarkLayoutTest {
+
+    private static float[] widths(int count, float width) {
+        final float[] widths = new float[count];
+        Arrays.fill(widths, width);
+        return widths;
+    }
+
+    @Test
+    public void everyMarkIsClickableWithoutOverlap() {
+        final MarkLayout layout = new MarkLayout();
+        // Marks at 0, 20, 40, 60, 80.
+        layout.layout(widths(5, 10), 5, 0, 20, 90, 0, 30);
+
+        assertEquals(5, layout.getVisibleCount());
+        assertEquals(0, layout.findClickIndex(-5, 0));
+        assertEquals(1, layout.findClickIndex(16, 10));
+        assertEquals(4, layout.findClickIndex(89, 29));
+        assertEquals(-1, layout.findClickIndex(10, 10));
+        assertEquals(-1, layout.findClickIndex(16, 30));
+        assertEquals(-1, layout.findClickIndex(16, -1));
+    }
+
+    @Test
+    public void skippedMarksAreNotClickable() {
+        final MarkLayout layout = new MarkLayout();
+        // Text draw lefts are -15, 5, 25, 45 and 60 for the last one.
+        layout.layout(widths(5, 30), 5, 0, 20, 90, 0, 30);
+
+        assertEquals(3, layout.getVisibleCount());
+        assertEquals(0, layout.getVisibleIndex(0));
+        assertEquals(2, layout.getVisibleIndex(1));
+        assertEquals(4, layout.getVisibleIndex(2));
+
+        assertEquals(0, layout.findClickIndex(10, 10));
+        assertEquals(-1, layout.findClickIndex(20, 10));
+        assertEquals(2, layout.findClickIndex(50, 10));
+        assertEquals(-1, layout.findClickIndex(57, 10));
+        assertEquals(4, layout.findClickIndex(60, 10));
+        assertFalse(layout.contains(1, 10, 10));
+        assertFalse(layout.contains(3, 50, 10));
+    }
+
+    @Test
+    public void lastMarkReplacesOverlappedOnes() {
+        final MarkLayout layout = new MarkLayout();
+        // Last text is right aligned at 70, so it overlaps mark 2.
+        layout.layout(widths(4, 30), 4, 0, 20, 70, 0, 30);
+
+        assertEquals(2, layout.getVisibleCount());
+        assertEquals(0, layout.getVisibleIndex(0));
+        assertEquals(3, layout.getVisibleIndex(1));
+        assertEquals(-1, layout.findClickIndex(30, 5));
+        assertEquals(3, layout.findClickIndex(45, 5));
+    }
+
+    @Test
+    public void overlappedMarksAreSplitWithoutDecimation() {
+        final MarkLayout layout = new MarkLayout();
+        layout.setDecimationEnabled(false);
+        // Click areas are [-15, 15) and [10, 40).
+        layout.layout(widths(2, 30), 2, 0, 20, 40, 0, 30);
+
+        assertEquals(2, layout.getVisibleCount());
+        assertEquals(0, layout.findClickIndex(11, 5));
+        assertEquals(1, layout.findClickIndex(12, 5));
+        assertEquals(1, layout.findClickIndex(39, 5));
+        assertEquals(-1, layout.findClickIndex(40, 5));
+    }
+
+    @Test
+    public void clickIndexMatchesLinearScan() {
+        final Random random = new Random(7);
+        final MarkLayout layout = new MarkLayout();
+        final float[] textWidths = new float[64];
+
+        for (int round = 0; round < 100; round++) {
+            final int count = 1 + random.nextInt(textWidths.length);
+            for (int i = 0; i < count; i++) {
+                textWidths[i] = 5 + random.nextInt(40);
+            }
+            final float partLength = 5 + random.nextInt(30);
+            final float lastTextRight = 10 + (count - 1) * partLength;
+            layout.setDecimationEnabled(random.nextBoolean());
+            layout.layout(textWidths, count, 10, partLength, lastTextRight,
+                    0, 20);
+
+            for (int x = -40; x < lastTextRight + 40; x++) {
+                final int index = layout.findClickIndex(x, 10);
+                if (index >= 0) {
+                    assertTrue(layout.contains(index, x, 10));
+                } else if (layout.isDecimationEnabled()) {
+                    for (int i = 0; i < count; i++) {
+                        assertFalse(layout.contains(i, x, 10));
+                    }
+                }
+            }
+        }
+    }
+}
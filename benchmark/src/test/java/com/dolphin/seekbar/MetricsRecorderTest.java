@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRecorderTest {
+
+    private long mNow;
+    private MetricsRecorder mRecorder;
+
+    @Before
+    public void setUp() {
+        mNow = 10000;
+        mRecorder = new MetricsRecorder();
+    }
+
+    private void invalidate(int count) {
+        for (int i = 0; i < count; i++) {
+            mRecorder.recordInvalidate(mNow);
+        }
+    }
+
+    private float rate(int seconds) {
+        return mRecorder.getInvalidationsPerSecond(mNow, seconds);
+    }
+
+    @Test
+    public void rateCountsOnlyCompleteSeconds() {
+        invalidate(5);
+        mNow += 999;
+        invalidate(1);
+        assertEquals(0, rate(1), 0);
+
+        // Invalidations of the current second are not counted yet.
+        mNow += 1;
+        invalidate(3);
+        assertEquals(6, rate(1), 0);
+
+        mNow += 1500;
+        invalidate(100);
+        assertEquals(3, rate(1), 0);
+        assertEquals(4.5f, rate(2), 0);
+        assertEquals(9 / 7f, rate(7), 0);
+        assertEquals(109, mRecorder.getInvalidateCount());
+    }
+
+    @Test
+    public void ringDropsSecondsOutOfWindow() {
+        invalidate(5);
+
+        // Eight seconds later the same slot is reused for a new second.
+        mNow += 8000;
+        invalidate(2);
+        mNow += 1000;
+        assertEquals(2, rate(1), 0);
+        assertEquals(2 / 7f, rate(7), 0);
+
+        // Slots of seconds long gone are not counted.
+        mNow += 20000;
+        assertEquals(0, rate(7), 0);
+    }
+
+    @Test
+    public void secondsWithoutInvalidationsCountAsZero() {
+        mNow = 500;
+        assertEquals(0, rate(7), 0);
+
+        invalidate(4);
+        mNow += 2000;
+        invalidate(2);
+        mNow += 1000;
+        assertEquals(2, rate(3), 0);
+        assertEquals(1, rate(2), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rateOfNoSecondIsRejected() {
+        rate(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rateLongerThanWindowIsRejected() {
+        rate(8);
+    }
+
+    @Test
+    public void metricsGoToTheirHistogramsUntilReset() {
+        mRecorder.recordDrawTime(1000);
+        mRecorder.recordTouchMoveTime(200);
+        mRecorder.recordTouchMoveTime(300);
+        mRecorder.recordTouchToDrawLatency(16);
+        mRecorder.recordListenerTime(50);
+        invalidate(3);
+
+        assertEquals(1000, mRecorder.getDrawTimes().getMax());
+        assertEquals(2, mRecorder.getTouchMoveTimes().getCount());
+        assertEquals(16, mRecorder.getTouchToDrawLatencies().getMax());
+        assertEquals(50, mRecorder.getListenerTimes().getMax());
+
+        mRecorder.reset();
+        assertEquals(0, mRecorder.getDrawTimes().getCount());
+        assertEquals(0, mRecorder.getTouchMoveTimes().getCount());
+        assertEquals(0, mRecorder.getTouchToDrawLatencies().getCount());
+        assertEquals(0, mRecorder.getListenerTimes().getCount());
+        assertEquals(0, mRecorder.getInvalidateCount());
+        mNow += 1000;
+        assertEquals(0, rate(1), 0);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class NumericRangeTest {
+
+    @Test
+    public void lastStepIsNotMoreThanMax() {
+        final NumericRange range = new NumericRange(0, 10, 3);
+        assertEquals(4, range.getCount());
+        assertEquals(9, range.getMax(), 0);
+        assertEquals(9, range.valueAt(100), 0);
+        assertEquals(0, range.valueAt(-1), 0);
+    }
+
+    @Test
+    public void biggestCountIsAccepted() {
+        final NumericRange range = new NumericRange(0,
+                NumericRange.MAX_COUNT - 1, 1);
+        assertEquals(NumericRange.MAX_COUNT, range.getCount());
+
+        // Every step index is still exact in the float mark space.
+        final int last = NumericRange.MAX_COUNT - 1;
+        assertEquals(last, (int) (float) last);
+        assertEquals(last - 1, range.valueAt(last - 1), 0);
+        assertEquals(last, range.indexOf(range.valueAt(last)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyStepsAreRejected() {
+        new NumericRange(0, NumericRange.MAX_COUNT, 1);
+    }
+}
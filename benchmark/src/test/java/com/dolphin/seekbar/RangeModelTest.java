@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RangeModelTest {
+
+    private static final float DELTA = 1e-6f;
+
+    private static RangeModel modelAt(int markCount, int... indexes) {
+        final RangeModel model = new RangeModel(markCount, indexes.length);
+        for (int i = 0; i < indexes.length; i++) {
+            model.setIndex(i, indexes[i]);
+            model.setNextIndex(i, indexes[i]);
+        }
+        return model;
+    }
+
+    @Test
+    public void cursorsSpreadFromFirstMarkToLast() {
+        final RangeModel model = new RangeModel(10, 4);
+        assertEquals(0, model.getNextIndex(0));
+        assertEquals(3, model.getNextIndex(1));
+        assertEquals(6, model.getNextIndex(2));
+        assertEquals(9, model.getNextIndex(3));
+        assertTrue(new RangeModel(5).isFullSelected());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oddCursorCountIsRejected() {
+        new RangeModel(10, 3);
+    }
+
+    @Test
+    public void moveIsClampedToBoundary() {
+        final RangeModel model = modelAt(11, 0, 10);
+        assertEquals(RangeModel.MOVE_NONE, model.move(0, -1, false, false));
+        assertEquals(RangeModel.MOVE_NONE, model.move(1, 1, false, false));
+
+        model.setIndex(0, 2);
+        assertEquals(RangeModel.MOVE_CHANGED,
+                model.move(0, -5, false, false));
+        assertEquals(0, model.getIndex(0), DELTA);
+    }
+
+    @Test
+    public void moveStopsAtPinnedNeighbour() {
+        final RangeModel model = modelAt(11, 0, 5);
+        model.setCursorGap(0.5f);
+
+        assertEquals(RangeModel.MOVE_CHANGED,
+                model.move(0, 4.8f, false, true));
+        assertEquals(4.5f, model.getIndex(0), DELTA);
+        assertEquals(-1, model.getPushedCursor());
+        assertEquals(5, model.getNextIndex(1));
+    }
+
+    @Test
+    public void movePushesUpperNeighbour() {
+        final RangeModel model = modelAt(11, 0, 5);
+        model.setCursorGap(0.5f);
+
+        assertEquals(RangeModel.MOVE_CHANGED | RangeModel.MOVE_PUSHED,
+                model.move(0, 4.8f, false, false));
+        assertEquals(4.8f, model.getIndex(0), DELTA);
+        assertEquals(1, model.getPushedCursor());
+        assertEquals(6, model.getNextIndex(1));
+
+        // Never passes the next location of the pushed one.
+        model.move(0, 3, false, false);
+        assertEquals(5.5f, model.getIndex(0), DELTA);
+    }
+
+    @Test
+    public void movePushesLowerNeighbour() {
+        final RangeModel model = modelAt(11, 5, 10);
+        model.setCursorGap(0.5f);
+
+        assertEquals(RangeModel.MOVE_CHANGED | RangeModel.MOVE_PUSHED,
+                model.move(1, -4.8f, false, false));
+        assertEquals(5.2f, model.getIndex(1), DELTA);
+        assertEquals(0, model.getPushedCursor());
+        assertEquals(4, model.getNextIndex(0));
+    }
+
+    @Test
+    public void moveDoesNotPushNeighbourOutOfBoundary() {
+        final RangeModel model = modelAt(11, 0, 10);
+        model.setCursorGap(0.5f);
+
+        assertEquals(RangeModel.MOVE_CHANGED,
+                model.move(0, 20, false, false));
+        assertEquals(9.5f, model.getIndex(0), DELTA);
+        assertEquals(10, model.getNextIndex(1));
+    }
+
+    @Test
+    public void snapGoesToNearestMark() {
+        final RangeModel model = modelAt(11, 0, 10);
+
+        assertFalse(model.snap(0));
+
+        model.setIndex(0, 2.3f);
+        assertTrue(model.snap(0));
+        assertEquals(2, model.getNextIndex(0));
+
+        model.setIndex(0, 2.7f);
+        assertTrue(model.snap(0));
+        assertEquals(3, model.getNextIndex(0));
+    }
+
+    @Test
+    public void snapNeverSharesMarkWithNeighbour() {
+        final RangeModel model = modelAt(11, 2, 10);
+        model.setIndex(1, 2.4f);
+
+        assertTrue(model.snap(1));
+        assertEquals(3, model.getNextIndex(1));
+
+        final RangeModel upper = modelAt(11, 0, 8);
+        upper.setIndex(0, 7.6f);
+        assertTrue(upper.snap(0));
+        assertEquals(7, upper.getNextIndex(0));
+    }
+
+    @Test
+    public void nearestCursorPrefersLowerOnTie() {
+        final RangeModel model = modelAt(10, 0, 3, 6, 9);
+        assertEquals(0, model.findNearestCursor(1));
+        assertEquals(1, model.findNearestCursor(4));
+        assertEquals(2, model.findNearestCursor(6));
+        assertEquals(3, model.findNearestCursor(9));
+
+        assertEquals(0, modelAt(5, 0, 4).findNearestCursor(2));
+    }
+
+    @Test
+    public void selectPushesNeighboursInTheWay() {
+        final RangeModel model = modelAt(10, 0, 3, 6, 9);
+
+        model.select(1, 7);
+        assertEquals(7, model.getNextIndex(1));
+        assertEquals(8, model.getNextIndex(2));
+        assertEquals(9, model.getNextIndex(3));
+        assertEquals(1, model.getPushedFirst());
+        assertEquals(2, model.getPushedLast());
+
+        final RangeModel lower = modelAt(10, 0, 3, 6, 9);
+        lower.select(3, 3);
+        assertEquals(2, lower.getNextIndex(2));
+        assertEquals(1, lower.getNextIndex(1));
+        assertEquals(0, lower.getNextIndex(0));
+        assertEquals(1, lower.getPushedFirst());
+        assertEquals(3, lower.getPushedLast());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectRejectsIndexWithoutRoomForOthers() {
+        modelAt(10, 0, 3, 6, 9).select(1, 8);
+    }
+}
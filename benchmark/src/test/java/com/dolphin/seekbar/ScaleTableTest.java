@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ScaleTableTest {
+
+    private static final float TOLERANCE = 1e-3f;
+
+    private static void assertRoundTrip(Scale scale, int samples) {
+        final ScaleTable table = new ScaleTable();
+        table.build(scale, samples);
+
+        assertEquals(0, table.toPosition(0), 0);
+        assertEquals(1, table.toPosition(1), 0);
+        assertEquals(0, table.toFraction(0), 0);
+        assertEquals(1, table.toFraction(1), 0);
+
+        for (int i = 0; i <= 100; i++) {
+            final float x = i / 100f;
+            assertEquals(scale.toPosition(x), table.toPosition(x), TOLERANCE);
+            assertEquals(scale.toFraction(x), table.toFraction(x), TOLERANCE);
+            assertEquals(x, table.toFraction(table.toPosition(x)), TOLERANCE);
+            assertEquals(x, table.toPosition(table.toFraction(x)), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void linearNeedsNoTable() {
+        final ScaleTable table = new ScaleTable();
+        table.build(null, 1000);
+
+        assertEquals(LinearScale.INSTANCE, table.getScale());
+        assertEquals(0.37f, table.toPosition(0.37f), 0);
+        assertEquals(0.37f, table.toFraction(0.37f), 0);
+    }
+
+    @Test
+    public void logScaleRoundTrip() {
+        assertRoundTrip(new LogScale(9), 1000);
+    }
+
+    @Test
+    public void piecewiseScaleRoundTrip() {
+        assertRoundTrip(new PiecewiseLinearScale(new float[] { 0, 0.1f, 1 },
+                new float[] { 0, 0.5f, 1 }), 1000);
+    }
+
+    @Test
+    public void outOfRangeIsClamped() {
+        final ScaleTable table = new ScaleTable();
+        table.build(new LogScale(9), 100);
+
+        assertEquals(0, table.toPosition(-0.5f), 0);
+        assertEquals(1, table.toPosition(1.5f), 0);
+        assertEquals(0, table.toFraction(-0.5f), 0);
+        assertEquals(1, table.toFraction(1.5f), 0);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SeekbarFrameTest {
+
+    private static final int MARK_COUNT = 101;
+    private static final int CURSOR_COUNT = 4;
+    private static final int CURSOR_SIZE = 30;
+
+    /**
+     * Frames and moves per measured round.
+     */
+    private static final int FRAME_COUNT = 1000;
+
+    private RangeModel mModel;
+    private SeekbarFrame mFrame;
+    private SeekbarGeometry mGeometry;
+    private ScaleTable mScaleTable;
+
+    @Before
+    public void setUp() {
+        mModel = new RangeModel(MARK_COUNT, CURSOR_COUNT);
+        mScaleTable = new ScaleTable();
+        final MarkLayout markLayout = new MarkLayout();
+        mFrame = new SeekbarFrame(mModel, mScaleTable, markLayout);
+
+        mGeometry = new SeekbarGeometry(1000, 0, 0, 0, 20, 10, 6,
+                CURSOR_SIZE, CURSOR_SIZE, CURSOR_SIZE, CURSOR_SIZE);
+        mScaleTable.build(new LogScale(9),
+                (int) mGeometry.getTrackLength() + 1);
+        mFrame.setGeometry(mGeometry);
+        mFrame.setMarkMargin(6);
+
+        final float[] textWidths = new float[MARK_COUNT];
+        Arrays.fill(textWidths, 20);
+        final float[] markX = markLayout.obtainMarkXArray(MARK_COUNT);
+        for (int i = 0; i < MARK_COUNT; i++) {
+            markX[i] = mFrame.indexToX(i);
+        }
+        markLayout.layout(textWidths, MARK_COUNT,
+                mGeometry.getLastTextRight(), mGeometry.getClickTop(),
+                mGeometry.getClickBottom());
+        mFrame.setLabels(1, MARK_COUNT);
+
+        mFrame.beginFrame();
+    }
+
+    @Test
+    public void indexAndLocationRoundTrip() {
+        assertEquals(mGeometry.getTrackLeft(), mFrame.indexToX(0), 0);
+        assertEquals(mGeometry.getTrackRight(),
+                mFrame.indexToX(MARK_COUNT - 1), 1e-3f);
+        for (int i = 0; i < MARK_COUNT; i++) {
+            assertEquals(i, mFrame.xToIndex(mFrame.indexToX(i)), 0.1f);
+        }
+    }
+
+    @Test
+    public void dragDoesNotDriftFromPointer() {
+        mScaleTable.build(new LogScale(99),
+                (int) mGeometry.getTrackLength() + 1);
+
+        // Grabbed off center, the cursor keeps that distance to the pointer.
+        final int cursor = 0;
+        float x = mFrame.indexToX(mModel.getIndex(cursor)) + 5;
+        mFrame.setPointerX(cursor, x);
+
+        // Slow drag in sub-pixel steps where marks are far apart, then small
+        // moves back and forth.
+        for (int i = 0; i < 300; i++) {
+            x += 0.5f;
+            mFrame.move(cursor, x, false, false);
+            assertFollows(cursor, x - 5);
+        }
+        for (int i = 0; i < 500; i++) {
+            x += i % 2 == 0 ? 1 : -1;
+            mFrame.move(cursor, x, false, false);
+            assertFollows(cursor, x - 5);
+        }
+        assertEquals(x, mFrame.getPointerX(cursor), 0);
+    }
+
+    @Test
+    public void predictionOnlyMovesDrawnCursor() {
+        final int cursor = 1;
+        final float x = mFrame.indexToX(mModel.getIndex(cursor));
+        mFrame.setPointerX(cursor, x);
+        mFrame.move(cursor, x + 10, false, false);
+        final float index = mModel.getIndex(cursor);
+
+        assertTrue(mFrame.setPrediction(cursor, 6));
+        assertEquals(index, mModel.getIndex(cursor), 0);
+        assertEquals(x + 10, mFrame.getPointerX(cursor), 0);
+        assertEquals(mFrame.indexToX(index) + 6, mFrame.cursorX(cursor, index),
+                1e-3f);
+        assertTrue(mFrame.isChanged(cursor, cursor));
+
+        // Real samples are followed from the tracked pointer, not from the
+        // predicted location.
+        mFrame.move(cursor, x + 11, false, false);
+        assertFollows(cursor, x + 11);
+
+        mFrame.beginFrame();
+        assertEquals(mFrame.cursorX(cursor, mModel.getIndex(cursor)),
+                mFrame.getDrawnX(cursor), 0);
+        assertFalse(mFrame.setPrediction(cursor, 6));
+        assertTrue(mFrame.setPrediction(cursor, 0));
+        assertTrue(mFrame.isChanged(cursor, cursor));
+        mFrame.clearDirty();
+        mFrame.unionChanged(cursor, cursor);
+        assertFalse(mFrame.isDirtyEmpty());
+    }
+
+    @Test
+    public void predictionStopsAtNeighbour() {
+        final int cursor = 1;
+        final float index = mModel.getIndex(cursor);
+        final float limit = mFrame.indexToX(mModel.getIndex(cursor + 1))
+                - CURSOR_SIZE;
+        mFrame.setPrediction(cursor, 10000);
+        assertEquals(limit, mFrame.cursorX(cursor, index), 1e-3f);
+        mFrame.setPrediction(cursor, -10000);
+        assertEquals(mFrame.indexToX(mModel.getIndex(cursor - 1))
+                + CURSOR_SIZE, mFrame.cursorX(cursor, index), 1e-3f);
+
+        mFrame.setPrediction(0, -10000);
+        assertEquals(mGeometry.getTrackLeft(),
+                mFrame.cursorX(0, mModel.getIndex(0)), 0);
+    }
+
+    private void assertFollows(int cursor, float expectedX) {
+        assertEquals(expectedX, mFrame.indexToX(mModel.getIndex(cursor)),
+                0.5f);
+    }
+
+    @Test
+    public void unchangedFrameIsSkipped() {
+        assertFalse(mFrame.isChanged(0, CURSOR_COUNT - 1));
+
+        mFrame.clearDirty();
+        mFrame.unionChanged(0, CURSOR_COUNT - 1);
+        assertTrue(mFrame.isDirtyEmpty());
+    }
+
+    @Test
+    public void dirtyCoversOldAndNewCursorBounds() {
+        final int oldLeft = mFrame.getDrawnCursorLeft(1);
+        final float x = mFrame.indexToX(mModel.getIndex(1));
+        mFrame.setPointerX(1, x);
+        final int result = mFrame.move(1, x - 40, false, false);
+        assertEquals(RangeModel.MOVE_CHANGED, result);
+        assertTrue(mFrame.isChanged(1, 1));
+
+        mFrame.clearDirty();
+        mFrame.unionChanged(1, 1);
+        final int newLeft = mFrame.cursorLeft(1, mModel.getIndex(1));
+        assertTrue(mFrame.getDirtyLeft() <= newLeft);
+        assertTrue(mFrame.getDirtyRight() >= oldLeft + CURSOR_SIZE);
+        assertTrue(mFrame.getDirtyTop() <= mGeometry.getCursorTop(1));
+        assertTrue(mFrame.getDirtyBottom() >= mGeometry.getCursorTop(1)
+                + CURSOR_SIZE);
+
+        // Selected state of marks flipped, so they are redrawn too.
+        assertEquals(mGeometry.getClickTop(), mFrame.getDirtyTop());
+
+        mFrame.beginFrame();
+        assertFalse(mFrame.isChanged(1, 1));
+        assertEquals(newLeft, mFrame.getDrawnCursorLeft(1));
+    }
+
+    @Test
+    public void movesAndFramesDoNotAllocate() {
+        assumeTrue(Allocations.isSupported());
+
+        final Runnable drag = new Runnable() {
+            private float mX;
+
+            @Override
+            public void run() {
+                final SeekbarFrame frame = mFrame;
+                final RangeModel model = mModel;
+                mX = frame.indexToX(model.getIndex(2));
+                frame.setPointerX(2, mX);
+                for (int i = 0; i < FRAME_COUNT; i++) {
+                    // Back and forth, pushing neighbours on the way.
+                    mX += (i / 100) % 2 == 0 ? 7.3f : -7.3f;
+                    frame.move(2, mX, false, false);
+                    if (frame.isChanged(0, CURSOR_COUNT - 1)) {
+                        frame.clearDirty();
+                        frame.unionChanged(0, CURSOR_COUNT - 1);
+                    } else {
+                        frame.skipFrame();
+                    }
+                    frame.beginFrame();
+                }
+                model.snap(2);
+            }
+        };
+
+        assertEquals(0, Allocations.measure(drag));
+        assertTrue(mFrame.getDrawnFrameCount() > FRAME_COUNT);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TimeHistogramTest {
+
+    /**
+     * Percentile 50 of value and a much bigger one, which is the upper bound
+     * of the bucket of value.
+     */
+    private static long upperBoundOf(long value) {
+        final TimeHistogram histogram = new TimeHistogram();
+        histogram.record(value);
+        histogram.record(Long.MAX_VALUE);
+        return histogram.getPercentile(50);
+    }
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        assertEquals(0, upperBoundOf(-5));
+        assertEquals(0, upperBoundOf(0));
+        assertEquals(1, upperBoundOf(1));
+        assertEquals(3, upperBoundOf(2));
+        assertEquals(3, upperBoundOf(3));
+        for (int k = 2; k < 62; k++) {
+            assertEquals((1L << k) - 1, upperBoundOf((1L << k) - 1));
+            assertEquals((1L << (k + 1)) - 1, upperBoundOf(1L << k));
+        }
+        assertEquals(Long.MAX_VALUE, upperBoundOf(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void percentileSelectsBucketByRank() {
+        final TimeHistogram histogram = new TimeHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(10);
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(5000);
+
+        assertEquals(15, histogram.getPercentile(0));
+        assertEquals(15, histogram.getPercentile(50));
+        assertEquals(15, histogram.getPercentile(90));
+        assertEquals(1023, histogram.getPercentile(90.5));
+        assertEquals(1023, histogram.getPercentile(99));
+        // Never more than the biggest recorded value.
+        assertEquals(5000, histogram.getPercentile(99.5));
+        assertEquals(5000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void countMeanMaxAndReset() {
+        final TimeHistogram histogram = new TimeHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMean(), 0);
+
+        histogram.record(4);
+        histogram.record(8);
+        histogram.record(30);
+        assertEquals(3, histogram.getCount());
+        assertEquals(14, histogram.getMean(), 0);
+        assertEquals(30, histogram.getMax());
+        assertEquals("count=3 mean=14 p50=15 p99=30 max=30",
+                histogram.toString());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(100));
+    }
+}
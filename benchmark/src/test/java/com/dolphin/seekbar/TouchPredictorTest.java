@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TouchPredictorTest {
+
+    @Test
+    public void constantVelocityIsExtrapolated() {
+        final TouchPredictor predictor = new TouchPredictor(2);
+        for (int i = 0; i < 6; i++) {
+            predictor.addSample(1, 100 + 2 * i, 1000 + 8 * i);
+        }
+        assertEquals(0.25f, predictor.getVelocity(1), 1e-6f);
+        assertEquals(112, predictor.predict(1, 8), 1e-4f);
+        assertEquals(110, predictor.predict(1, 0), 0);
+
+        // Other slots are not affected.
+        predictor.addSample(0, 50, 1000);
+        assertEquals(0, predictor.getVelocity(0), 0);
+    }
+
+    @Test
+    public void predictionNeverPassesCoveredDistance() {
+        final TouchPredictor predictor = new TouchPredictor(1);
+        for (int i = 0; i < 4; i++) {
+            predictor.addSample(0, 100 - 2 * i, 1000 + 8 * i);
+        }
+        assertEquals(-0.25f, predictor.getVelocity(0), 1e-6f);
+        assertEquals(88, predictor.predict(0, 1000), 1e-4f);
+    }
+
+    @Test
+    public void tooFewSamplesPredictNoMovement() {
+        final TouchPredictor predictor = new TouchPredictor(1);
+        predictor.addSample(0, 100, 1000);
+        assertEquals(0, predictor.getVelocity(0), 0);
+        assertEquals(100, predictor.predict(0, 16), 0);
+
+        // Reset forgets samples of earlier gestures.
+        predictor.addSample(0, 120, 1008);
+        predictor.reset(0);
+        predictor.addSample(0, 300, 2000);
+        assertEquals(300, predictor.predict(0, 16), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noSampleCanNotBePredicted() {
+        new TouchPredictor(1).predict(0, 16);
+    }
+
+    @Test
+    public void staleSamplesAreIgnored() {
+        final TouchPredictor predictor = new TouchPredictor(1);
+        predictor.addSample(0, 0, 1000);
+        predictor.addSample(0, 10, 1010);
+
+        // Finger rested before moving again, older samples say nothing
+        // about current velocity.
+        predictor.addSample(0, 200, 1100);
+        assertEquals(0, predictor.getVelocity(0), 0);
+        assertEquals(200, predictor.predict(0, 16), 0);
+
+        predictor.addSample(0, 204, 1116);
+        assertEquals(0.25f, predictor.getVelocity(0), 1e-6f);
+    }
+}
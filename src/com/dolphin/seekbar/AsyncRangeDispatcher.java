@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs work for the latest range on a worker executor and delivers results
+ * on a result executor, usually the main thread. Only one range is pending
+ * at any time: submitting a new one replaces the pending one and cancels the
+ * token of the running one, and results of cancelled ranges are never
+ * delivered.
+ * <p>
+ * At most one task is queued on the worker executor however fast ranges are
+ * submitted, so a slow consumer never piles up work.
+ */
+public class AsyncRangeDispatcher<T> {
+
+    /**
+     * Cancellation state of the work for one range. Long running work should
+     * check {@link #isCancelled()} and return early.
+     */
+    public static final class Token {
+        private volatile boolean mCancelled;
+
+        public boolean isCancelled() {
+            return mCancelled;
+        }
+
+        void cancel() {
+            mCancelled = true;
+        }
+    }
+
+    public interface Callback<T> {
+        /**
+         * Called on the worker executor.
+         * 
+         * @param locations
+         *            mark of every cursor, from left to right.
+         */
+        T compute(int[] locations, Token token);
+
+        /**
+         * Called on the result executor if the range is still the latest.
+         */
+        void onResult(int[] locations, T result);
+    }
+
+    private final Executor mWorkExecutor;
+    private final Executor mResultExecutor;
+    private final Callback<T> mCallback;
+
+    private final Object mLock = new Object();
+
+    /**
+     * Latest submitted range not taken by the worker yet, or null.
+     */
+    private int[] mPending;
+
+    /**
+     * Token of the latest range taken by the worker. Kept after work is done,
+     * so that its result is dropped if a newer range comes before delivery.
+     */
+    private Token mCurrentToken;
+
+    /**
+     * Whether mDrain is queued or running on the worker executor.
+     */
+    private boolean mDraining;
+
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public AsyncRangeDispatcher(Executor workExecutor,
+            Executor resultExecutor, Callback<T> callback) {
+        if (workExecutor == null || resultExecutor == null || callback == null) {
+            throw new IllegalArgumentException(
+                    "Executors and callback can not be null!");
+        }
+
+        mWorkExecutor = workExecutor;
+        mResultExecutor = resultExecutor;
+        mCallback = callback;
+    }
+
+    /**
+     * Replace the pending range and cancel the running one. Locations are
+     * copied, so the array can be reused by caller.
+     */
+    public void submit(int[] locations) {
+        synchronized (mLock) {
+            if (mPending == null || mPending.length != locations.length) {
+                mPending = new int[locations.length];
+            }
+            System.arraycopy(locations, 0, mPending, 0, locations.length);
+
+            if (mCurrentToken != null) {
+                mCurrentToken.cancel();
+            }
+            if (mDraining) {
+                return;
+            }
+            mDraining = true;
+        }
+
+        try {
+            mWorkExecutor.execute(mDrain);
+        } catch (RuntimeException e) {
+            synchronized (mLock) {
+                mDraining = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop the pending range and cancel the running one.
+     */
+    public void cancel() {
+        synchronized (mLock) {
+            mPending = null;
+            if (mCurrentToken != null) {
+                mCurrentToken.cancel();
+            }
+        }
+    }
+
+    /**
+     * Take pending ranges one by one until there is none.
+     */
+    private void drain() {
+        while (true) {
+            final int[] locations;
+            final Token token;
+            synchronized (mLock) {
+                if (mPending == null) {
+                    mDraining = false;
+                    return;
+                }
+                locations = mPending;
+                mPending = null;
+                token = new Token();
+                mCurrentToken = token;
+            }
+
+            final T result;
+            try {
+                result = mCallback.compute(locations, token);
+            } catch (RuntimeException e) {
+                drainAgainAfterFailure();
+                throw e;
+            }
+            if (token.isCancelled()) {
+                continue;
+            }
+
+            mResultExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // A newer range may have been submitted in the meantime.
+                    if (!token.isCancelled()) {
+                        mCallback.onResult(locations, result);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Work for a range failed, which ends this drain. A range submitted in
+     * the meantime found mDraining set and did not queue one, so queue a new
+     * drain for it, or drop it if the worker refuses.
+     */
+    private void drainAgainAfterFailure() {
+        synchronized (mLock) {
+            mDraining = mPending != null;
+            if (!mDraining) {
+                return;
+            }
+        }
+
+        try {
+            mWorkExecutor.execute(mDrain);
+        } catch (RuntimeException e) {
+            synchronized (mLock) {
+                mPending = null;
+                mDraining = false;
+            }
+        }
+    }
+}
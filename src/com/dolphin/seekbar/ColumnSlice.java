@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Maps positions of cursors to the part of a sorted long[] or double[]
+ * column between them, e.g. timestamps or prices. The result is an offset
+ * and a length over the original array, nothing is copied.
+ * <p>
+ * Bounds are searched starting from the previous ones, by exponential then
+ * binary search, so moving a cursor by one mark only costs a search over the
+ * rows of that mark. A bound whose cursor has not moved is not searched.
+ */
+public class ColumnSlice {
+
+    private final long[] mLongs;
+    private final double[] mDoubles;
+    private final int mOffset;
+    private final int mCount;
+
+    /**
+     * Key at mark position p is mFirstKey + p * mKeyStep.
+     */
+    private final double mFirstKey;
+    private final double mKeyStep;
+
+    /**
+     * Slice is [mStart, mEnd), relative to mOffset.
+     */
+    private int mStart;
+    private int mEnd;
+    private float mFromPosition = Float.NaN;
+    private float mToPosition = Float.NaN;
+
+    private ColumnSlice(long[] longs, double[] doubles, int offset, int count,
+            int length, double firstKey, double keyStep) {
+        if (offset < 0 || count < 0 || offset + count > length) {
+            throw new IllegalArgumentException(
+                    "Offset and count out of column!");
+        }
+        if (!(keyStep > 0)) {
+            throw new IllegalArgumentException("Step should be more than 0!");
+        }
+
+        mLongs = longs;
+        mDoubles = doubles;
+        mOffset = offset;
+        mCount = count;
+        mFirstKey = firstKey;
+        mKeyStep = keyStep;
+        mEnd = count;
+    }
+
+    /**
+     * @param column
+     *            sorted in ascending order, not copied.
+     * @param firstKey
+     *            key at the first mark.
+     * @param keyStep
+     *            distance of keys between two marks.
+     */
+    public static ColumnSlice ofLongs(long[] column, int offset, int count,
+            double firstKey, double keyStep) {
+        return new ColumnSlice(column, null, offset, count, column.length,
+                firstKey, keyStep);
+    }
+
+    /**
+     * Same as {@link #ofLongs(long[], int, int, double, double)}.
+     */
+    public static ColumnSlice ofDoubles(double[] column, int offset,
+            int count, double firstKey, double keyStep) {
+        return new ColumnSlice(null, column, offset, count, column.length,
+                firstKey, keyStep);
+    }
+
+    /**
+     * Keys in the domain of a numeric range.
+     */
+    public static ColumnSlice ofLongs(long[] column, int offset, int count,
+            NumericRange range) {
+        return ofLongs(column, offset, count, range.getMin(), range.getStep());
+    }
+
+    public static ColumnSlice ofDoubles(double[] column, int offset,
+            int count, NumericRange range) {
+        return ofDoubles(column, offset, count, range.getMin(),
+                range.getStep());
+    }
+
+    /**
+     * Select rows whose key is between two positions in mark space,
+     * inclusive.
+     * 
+     * @return whether the slice changed.
+     */
+    public boolean select(float fromPosition, float toPosition) {
+        final int oldStart = mStart;
+        final int oldEnd = mEnd;
+
+        if (fromPosition != mFromPosition) {
+            mStart = search(mFirstKey + fromPosition * mKeyStep, false, mStart);
+            mFromPosition = fromPosition;
+        }
+        if (toPosition != mToPosition) {
+            mEnd = search(mFirstKey + toPosition * mKeyStep, true, mEnd);
+            mToPosition = toPosition;
+        }
+
+        return mStart != oldStart || mEnd != oldEnd;
+    }
+
+    /**
+     * Index of the first selected row in the original array.
+     */
+    public int getOffset() {
+        return mOffset + mStart;
+    }
+
+    /**
+     * Count of selected rows, 0 if cursors are crossed or nothing between
+     * them.
+     */
+    public int getLength() {
+        return Math.max(0, mEnd - mStart);
+    }
+
+    /**
+     * The original column, null if it is a double[] one.
+     */
+    public long[] getLongColumn() {
+        return mLongs;
+    }
+
+    /**
+     * The original column, null if it is a long[] one.
+     */
+    public double[] getDoubleColumn() {
+        return mDoubles;
+    }
+
+    /**
+     * Selected rows as a buffer sharing the original long[] column.
+     */
+    public LongBuffer asLongBuffer() {
+        return LongBuffer.wrap(mLongs, getOffset(), getLength()).slice();
+    }
+
+    /**
+     * Selected rows as a buffer sharing the original double[] column.
+     */
+    public DoubleBuffer asDoubleBuffer() {
+        return DoubleBuffer.wrap(mDoubles, getOffset(), getLength()).slice();
+    }
+
+    /**
+     * First row not before key, starting from hint.
+     * 
+     * @param inclusive
+     *            whether rows equal to key are before it.
+     */
+    private int search(double key, boolean inclusive, int hint) {
+        // Bounds of long keys are compared as longs, so that big timestamps
+        // do not lose precision.
+        final long longKey = inclusive ? (long) Math.floor(key) : (long) Math
+                .ceil(key);
+
+        int low;
+        int high;
+        if (hint < mCount && isBefore(hint, key, longKey, inclusive)) {
+            // Gallop forward, rows before low are all before key.
+            low = hint + 1;
+            high = low;
+            int step = 1;
+            while (high < mCount && isBefore(high, key, longKey, inclusive)) {
+                low = high + 1;
+                high = low + step;
+                step <<= 1;
+            }
+            high = Math.min(high, mCount);
+        } else {
+            // Gallop backward, rows from high are all not before key.
+            high = hint;
+            low = high - 1;
+            int step = 1;
+            while (low >= 0 && !isBefore(low, key, longKey, inclusive)) {
+                high = low;
+                low = high - step;
+                step <<= 1;
+            }
+            low = Math.max(low + 1, 0);
+        }
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (isBefore(mid, key, longKey, inclusive)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean isBefore(int row, double key, long longKey,
+            boolean inclusive) {
+        if (mLongs != null) {
+            final long value = mLongs[mOffset + row];
+            return inclusive ? value <= longKey : value < longKey;
+        }
+        final double value = mDoubles[mOffset + row];
+        return inclusive ? value <= key : value < key;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Counts items between two cursor positions without scanning them. Items are
+ * given as sorted primitive keys, and a prefix sum of keys is aligned to
+ * marks, so a position on a mark is resolved in O(1) and a fractional one by
+ * binary search inside one mark.
+ * <p>
+ * Keys are not copied, so caller must not modify them while the index is in
+ * use. Build a new index when data changes.
+ */
+public class CountIndex {
+
+    /**
+     * Upper bound of count of prefix sums. With more marks than this, every
+     * prefix sum covers a few marks and binary search runs in it.
+     */
+    private static final int MAX_BUCKETS = 1 << 16;
+
+    private final double[] mKeys;
+    private final int mCount;
+
+    /**
+     * Key at mark position p is mFirstKey + p * mKeyStep.
+     */
+    private final double mFirstKey;
+    private final double mKeyStep;
+    private final int mMarkCount;
+
+    /**
+     * mBucketStart[b] is count of keys less than key of mark b * mStride.
+     */
+    private final int mStride;
+    private final int[] mBucketStart;
+
+    /**
+     * Keys in the domain of a numeric range, e.g. prices when the seekbar is
+     * set by {@link RangeSeekbar#setRange(double, double, double)}.
+     */
+    public static CountIndex forRange(NumericRange range, double[] sortedKeys,
+            int count) {
+        return new CountIndex(sortedKeys, count, range.getMin(),
+                range.getStep(), range.getCount());
+    }
+
+    /**
+     * Keys are indexes of text marks.
+     */
+    public static CountIndex forMarks(int markCount, double[] sortedKeys,
+            int count) {
+        return new CountIndex(sortedKeys, count, 0, 1, markCount);
+    }
+
+    /**
+     * @param sortedKeys
+     *            keys of items in ascending order.
+     * @param count
+     *            count of items, from the start of sortedKeys.
+     * @param firstKey
+     *            key at the first mark.
+     * @param keyStep
+     *            distance of keys between two marks.
+     * @param markCount
+     *            count of marks.
+     */
+    public CountIndex(double[] sortedKeys, int count, double firstKey,
+            double keyStep, int markCount) {
+        if (count < 0 || count > sortedKeys.length) {
+            throw new IllegalArgumentException(
+                    "Count should from 0 to length of keys!");
+        }
+        if (!(keyStep > 0)) {
+            throw new IllegalArgumentException("Step should be more than 0!");
+        }
+        if (markCount <= 0) {
+            throw new IllegalArgumentException(
+                    "Count of marks should be more than 0!");
+        }
+
+        mKeys = sortedKeys;
+        mCount = count;
+        mFirstKey = firstKey;
+        mKeyStep = keyStep;
+        mMarkCount = markCount;
+
+        mStride = (markCount + MAX_BUCKETS - 1) / MAX_BUCKETS;
+        final int bucketCount = (markCount - 1) / mStride + 1;
+        mBucketStart = new int[bucketCount + 1];
+
+        // One sweep over keys and buckets together.
+        int k = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            final double bucketKey = keyAt((long) b * mStride);
+            while (k < count && sortedKeys[k] < bucketKey) {
+                k++;
+            }
+            mBucketStart[b] = k;
+        }
+        mBucketStart[bucketCount] = count;
+    }
+
+    private double keyAt(double position) {
+        return mFirstKey + position * mKeyStep;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getMarkCount() {
+        return mMarkCount;
+    }
+
+    /**
+     * Count of items whose key is between two positions in mark space,
+     * inclusive.
+     */
+    public int count(float from, float to) {
+        if (from > to) {
+            return 0;
+        }
+        return countAtOrBelow(to) - countBelow(from);
+    }
+
+    /**
+     * Count of keys less than key at position.
+     */
+    public int countBelow(float position) {
+        final double key = keyAt(position);
+        if (position <= 0) {
+            return countLess(key, 0, mBucketStart[0]);
+        }
+
+        final int bucket = bucketOf(position);
+        if (position == (long) bucket * mStride) {
+            return mBucketStart[bucket];
+        }
+        return countLess(key, mBucketStart[bucket], mBucketStart[bucket + 1]);
+    }
+
+    /**
+     * Count of keys not more than key at position.
+     */
+    public int countAtOrBelow(float position) {
+        final double key = keyAt(position);
+        if (position <= 0) {
+            return countLessOrEqual(key, 0, mBucketStart[1]);
+        }
+
+        // Keys equal to key at start of next bucket are in that bucket.
+        final int bucket = bucketOf(position);
+        final int high = mBucketStart[Math.min(bucket + 2,
+                mBucketStart.length - 1)];
+        return countLessOrEqual(key, mBucketStart[bucket], high);
+    }
+
+    /**
+     * Bucket covering a positive position, the last one if beyond.
+     */
+    private int bucketOf(float position) {
+        return (int) Math.min((long) position, mMarkCount - 1) / mStride;
+    }
+
+    /**
+     * First index in [low, high) whose key is not less than key, or high.
+     */
+    private int countLess(double key, int low, int high) {
+        final double[] keys = mKeys;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First index in [low, high) whose key is more than key, or high.
+     */
+    private int countLessOrEqual(double key, int low, int high) {
+        final double[] keys = mKeys;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Text of a count like "%d items", formatted into a reused char array so
+ * that updating it while dragging allocates nothing. Draw and measure it
+ * with the char array overloads of Canvas and Paint.
+ */
+public class CountLabel {
+
+    /**
+     * Enough for every digit and sign of an int.
+     */
+    private static final int MAX_DIGITS = 11;
+
+    private final char[] mPrefix;
+    private final char[] mSuffix;
+    private final char[] mChars;
+    private int mLength;
+
+    /**
+     * @param format
+     *            text with exactly one "%d" for the count, "%%" for a percent
+     *            sign.
+     */
+    public CountLabel(String format) {
+        final StringBuilder prefix = new StringBuilder();
+        final StringBuilder suffix = new StringBuilder();
+        StringBuilder current = prefix;
+        final int length = format.length();
+        for (int i = 0; i < length; i++) {
+            final char c = format.charAt(i);
+            if (c != '%') {
+                current.append(c);
+                continue;
+            }
+
+            final char next = i + 1 < length ? format.charAt(i + 1) : 0;
+            if (next == '%') {
+                current.append('%');
+            } else if (next == 'd' && current == prefix) {
+                current = suffix;
+            } else {
+                throw new IllegalArgumentException(
+                        "Format of count should have exactly one %d!");
+            }
+            i++;
+        }
+        if (current != suffix) {
+            throw new IllegalArgumentException(
+                    "Format of count should have exactly one %d!");
+        }
+
+        mPrefix = prefix.toString().toCharArray();
+        mSuffix = suffix.toString().toCharArray();
+        mChars = new char[mPrefix.length + MAX_DIGITS + mSuffix.length];
+        setCount(0);
+    }
+
+    /**
+     * Format count into {@link #getChars()}.
+     */
+    public void setCount(int count) {
+        final char[] chars = mChars;
+        System.arraycopy(mPrefix, 0, chars, 0, mPrefix.length);
+        int end = mPrefix.length;
+
+        if (count < 0) {
+            chars[end++] = '-';
+        }
+        // Digits are written from the lowest one, negative values keep
+        // Integer.MIN_VALUE in range.
+        int value = count < 0 ? count : -count;
+        int digits = 0;
+        do {
+            digits++;
+            value /= 10;
+        } while (value != 0);
+
+        value = count < 0 ? count : -count;
+        for (int i = end + digits - 1; i >= end; i--) {
+            chars[i] = (char) ('0' - value % 10);
+            value /= 10;
+        }
+        end += digits;
+
+        System.arraycopy(mSuffix, 0, chars, end, mSuffix.length);
+        mLength = end + mSuffix.length;
+    }
+
+    /**
+     * Shared array, only the first {@link #length()} chars are valid.
+     */
+    public char[] getChars() {
+        return mChars;
+    }
+
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public String toString() {
+        return new String(mChars, 0, mLength);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Animations of every cursor in mark space, advanced together by one
+ * {@link #step()} per frame, without any Android dependency. Time comes from
+ * a {@link Clock}, so animations can be run frame by frame on a plain JVM.
+ * <p>
+ * Starting an animation on a running cursor retargets it from where it is
+ * now, a request is never dropped.
+ */
+public class CursorAnimator {
+
+    /**
+     * Source of time in milliseconds, e.g. SystemClock.uptimeMillis() on
+     * Android.
+     */
+    public interface Clock {
+        long uptimeMillis();
+    }
+
+    /**
+     * Clock based on {@link System#nanoTime()}.
+     */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return System.nanoTime() / 1000000;
+        }
+    };
+
+    private final Clock mClock;
+
+    private int mCursorCount;
+    private float[] mFromArray;
+    private float[] mToArray;
+    private float[] mValueArray;
+    private long[] mStartTimeArray;
+    private int[] mDurationArray;
+    private boolean[] mRunningArray;
+    private boolean[] mChangedArray;
+    private int mRunningCount;
+
+    private int mChangedFirst = -1;
+    private int mChangedLast = -1;
+
+    public CursorAnimator(int cursorCount, Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock can not be null!");
+        }
+        mClock = clock;
+        setCursorCount(cursorCount);
+    }
+
+    /**
+     * Change count of cursors, every animation is dropped.
+     */
+    public void setCursorCount(int cursorCount) {
+        if (cursorCount < 0) {
+            throw new IllegalArgumentException(
+                    "Count of cursors can not less than 0!");
+        }
+
+        mCursorCount = cursorCount;
+        mFromArray = new float[cursorCount];
+        mToArray = new float[cursorCount];
+        mValueArray = new float[cursorCount];
+        mStartTimeArray = new long[cursorCount];
+        mDurationArray = new int[cursorCount];
+        mRunningArray = new boolean[cursorCount];
+        mChangedArray = new boolean[cursorCount];
+        mRunningCount = 0;
+        mChangedFirst = -1;
+        mChangedLast = -1;
+    }
+
+    public int getCursorCount() {
+        return mCursorCount;
+    }
+
+    public Clock getClock() {
+        return mClock;
+    }
+
+    /**
+     * Estimated bytes of arrays, see {@link MemoryFootprint}.
+     */
+    public long getMemoryFootprint() {
+        return MemoryFootprint.of(mFromArray) + MemoryFootprint.of(mToArray)
+                + MemoryFootprint.of(mValueArray)
+                + MemoryFootprint.of(mStartTimeArray)
+                + MemoryFootprint.of(mDurationArray)
+                + MemoryFootprint.of(mRunningArray)
+                + MemoryFootprint.of(mChangedArray);
+    }
+
+    /**
+     * Animate cursor from index to target, starting now. A running animation
+     * of cursor is replaced.
+     *
+     * @param from
+     *            current index of cursor, usually its last drawn one.
+     * @param duration
+     *            in milliseconds, 0 or less means landing on next step.
+     */
+    public void animateTo(int cursor, float from, float to, int duration) {
+        mFromArray[cursor] = from;
+        mToArray[cursor] = to;
+        mValueArray[cursor] = from;
+        mStartTimeArray[cursor] = mClock.uptimeMillis();
+        mDurationArray[cursor] = duration;
+        if (!mRunningArray[cursor]) {
+            mRunningArray[cursor] = true;
+            mRunningCount++;
+        }
+    }
+
+    /**
+     * Stop cursor where it is.
+     */
+    public void cancel(int cursor) {
+        if (mRunningArray[cursor]) {
+            mRunningArray[cursor] = false;
+            mRunningCount--;
+        }
+    }
+
+    public boolean isRunning(int cursor) {
+        return mRunningArray[cursor];
+    }
+
+    public boolean isRunning() {
+        return mRunningCount > 0;
+    }
+
+    /**
+     * Target of the running or last animation of cursor.
+     */
+    public float getTarget(int cursor) {
+        return mToArray[cursor];
+    }
+
+    /**
+     * Index of cursor computed by the last {@link #step()}.
+     */
+    public float getValue(int cursor) {
+        return mValueArray[cursor];
+    }
+
+    /**
+     * Advance every running animation to current time of clock. A finished
+     * animation lands exactly on its target.
+     *
+     * @return whether some animation is still running.
+     */
+    public boolean step() {
+        mChangedFirst = -1;
+        mChangedLast = -1;
+        if (mRunningCount == 0) {
+            return false;
+        }
+
+        final long now = mClock.uptimeMillis();
+        for (int i = 0; i < mCursorCount; i++) {
+            mChangedArray[i] = mRunningArray[i];
+            if (!mRunningArray[i]) {
+                continue;
+            }
+
+            final long elapsed = Math.max(0, now - mStartTimeArray[i]);
+            final int duration = mDurationArray[i];
+            if (elapsed >= duration) {
+                mValueArray[i] = mToArray[i];
+                mRunningArray[i] = false;
+                mRunningCount--;
+            } else {
+                // Same curve as DecelerateInterpolator with factor 1.
+                final float t = 1 - (float) elapsed / duration;
+                final float fraction = 1 - t * t;
+                mValueArray[i] = mFromArray[i] + (mToArray[i] - mFromArray[i])
+                        * fraction;
+            }
+
+            if (mChangedFirst == -1) {
+                mChangedFirst = i;
+            }
+            mChangedLast = i;
+        }
+        return mRunningCount > 0;
+    }
+
+    /**
+     * Whether cursor is updated by the last {@link #step()}.
+     */
+    public boolean isChanged(int cursor) {
+        return mChangedFirst != -1 && mChangedArray[cursor];
+    }
+
+    /**
+     * The lowest cursor updated by the last {@link #step()}, or -1.
+     */
+    public int getChangedFirst() {
+        return mChangedFirst;
+    }
+
+    /**
+     * The highest cursor updated by the last {@link #step()}, or -1.
+     */
+    public int getChangedLast() {
+        return mChangedLast;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+
+/**
+ * Debug drawing of {@link RangeSeekbar}: click areas, cursor bounds, a flash
+ * on every invalidated region, a rolling graph of frame time and rates of
+ * frames, invalidations and move events. Only allocated when enabled, so
+ * a seekbar without it only pays a null check.
+ */
+class DebugOverlay {
+
+    /**
+     * How long an invalidated region keeps flashing.
+     */
+    private static final int FLASH_DURATION = 250;
+
+    private static final int MAX_FLASHES = 32;
+
+    private static final int GRAPH_FRAMES = 64;
+
+    /**
+     * Height of graph for a frame of 16ms, the budget at 60fps.
+     */
+    private static final int GRAPH_BUDGET_HEIGHT = 24;
+
+    private static final long FRAME_BUDGET_NANOS = 16666667;
+
+    private final Paint mStrokePaint;
+    private final Paint mFillPaint;
+    private final Paint mTextPaint;
+
+    /**
+     * Ring of invalidated regions and their time.
+     */
+    private final int[] mFlashRects = new int[MAX_FLASHES * 4];
+    private final long[] mFlashTimes = new long[MAX_FLASHES];
+    private int mFlashNext;
+
+    /**
+     * Ring of frame times in nanoseconds, and vertices of graph bars.
+     */
+    private final long[] mFrameTimes = new long[GRAPH_FRAMES];
+    private int mFrameNext;
+    private final float[] mGraphLines = new float[GRAPH_FRAMES * 4];
+
+    /**
+     * Counts in current second, and rates of the last complete one.
+     */
+    private long mRateSecond = -1;
+    private int mFrameCount;
+    private int mInvalidateCount;
+    private int mMoveCount;
+    private String mRateText = "";
+
+    DebugOverlay(float textSize) {
+        mStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mStrokePaint.setStyle(Style.STROKE);
+        mStrokePaint.setStrokeWidth(1);
+
+        mFillPaint = new Paint();
+        mFillPaint.setStyle(Style.FILL);
+
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setTextSize(textSize);
+        mTextPaint.setColor(Color.BLACK);
+    }
+
+    void recordInvalidate(int left, int top, int right, int bottom,
+            long uptimeMillis) {
+        final int i = mFlashNext;
+        mFlashRects[i * 4] = left;
+        mFlashRects[i * 4 + 1] = top;
+        mFlashRects[i * 4 + 2] = right;
+        mFlashRects[i * 4 + 3] = bottom;
+        mFlashTimes[i] = uptimeMillis;
+        mFlashNext = (i + 1) % MAX_FLASHES;
+
+        rollRates(uptimeMillis);
+        mInvalidateCount++;
+    }
+
+    void recordTouchMove(long uptimeMillis) {
+        rollRates(uptimeMillis);
+        mMoveCount++;
+    }
+
+    void recordFrame(long nanos, long uptimeMillis) {
+        mFrameTimes[mFrameNext] = nanos;
+        mFrameNext = (mFrameNext + 1) % GRAPH_FRAMES;
+
+        rollRates(uptimeMillis);
+        mFrameCount++;
+    }
+
+    private void rollRates(long uptimeMillis) {
+        final long second = uptimeMillis / 1000;
+        if (second == mRateSecond) {
+            return;
+        }
+
+        // Counts of a second followed by an idle gap are not a rate.
+        if (second == mRateSecond + 1) {
+            mRateText = mFrameCount + " fps  " + mInvalidateCount
+                    + " inv/s  " + mMoveCount + " move/s";
+        } else {
+            mRateText = "";
+        }
+        mRateSecond = second;
+        mFrameCount = 0;
+        mInvalidateCount = 0;
+        mMoveCount = 0;
+    }
+
+    void drawClickRect(Canvas canvas, int left, int top, int right,
+            int bottom) {
+        if (left >= right) {
+            return;
+        }
+        mStrokePaint.setColor(Color.BLUE);
+        canvas.drawRect(left, top, right - 1, bottom - 1, mStrokePaint);
+    }
+
+    void drawCursorRect(Canvas canvas, int left, int top, int right,
+            int bottom) {
+        mStrokePaint.setColor(Color.GREEN);
+        canvas.drawRect(left, top, right - 1, bottom - 1, mStrokePaint);
+    }
+
+    /**
+     * Draw flashes, graph and rates at top-left.
+     * 
+     * @return whether some flash is still fading, and next frame is needed.
+     */
+    boolean draw(Canvas canvas, float left, float top, long uptimeMillis) {
+        boolean fading = false;
+        for (int i = 0; i < MAX_FLASHES; i++) {
+            final long age = uptimeMillis - mFlashTimes[i];
+            if (mFlashTimes[i] == 0 || age >= FLASH_DURATION) {
+                continue;
+            }
+
+            fading = true;
+            final int alpha = (int) (96 * (FLASH_DURATION - age) / FLASH_DURATION);
+            mFillPaint.setColor(Color.argb(alpha, 255, 0, 255));
+            canvas.drawRect(mFlashRects[i * 4], mFlashRects[i * 4 + 1],
+                    mFlashRects[i * 4 + 2], mFlashRects[i * 4 + 3], mFillPaint);
+        }
+
+        // One bar per frame, oldest first, red when over budget.
+        final float bottom = top + GRAPH_BUDGET_HEIGHT * 2;
+        int count = 0;
+        for (int n = 0; n < GRAPH_FRAMES; n++) {
+            final long nanos = mFrameTimes[(mFrameNext + n) % GRAPH_FRAMES];
+            final float height = Math.min(GRAPH_BUDGET_HEIGHT * 2f, (float) nanos
+                    * GRAPH_BUDGET_HEIGHT / FRAME_BUDGET_NANOS);
+            final float x = left + n * 2;
+            mGraphLines[count++] = x;
+            mGraphLines[count++] = bottom;
+            mGraphLines[count++] = x;
+            mGraphLines[count++] = bottom - height;
+        }
+        mStrokePaint.setColor(Color.argb(160, 0, 128, 255));
+        canvas.drawLines(mGraphLines, 0, count, mStrokePaint);
+
+        mStrokePaint.setColor(Color.RED);
+        final float budgetY = bottom - GRAPH_BUDGET_HEIGHT;
+        canvas.drawLine(left, budgetY, left + GRAPH_FRAMES * 2, budgetY,
+                mStrokePaint);
+
+        canvas.drawText(mRateText, left + GRAPH_FRAMES * 2 + 4, bottom,
+                mTextPaint);
+        return fading;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prints values with a fixed count of fraction digits, e.g. 0.3 instead of
+ * 0.30000000000000004 for the fourth step of 0.1. Used by
+ * {@link RangeSeekbar} in numeric mode if no LabelProvider has been set.
+ * <p>
+ * One builder is reused for every label, so an instance should only be
+ * used on one thread.
+ */
+public class DecimalLabelProvider implements LabelProvider {
+
+    /**
+     * Biggest count of digits a long can scale a value by.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final int mFractionDigits;
+    private final long mMultiplier;
+    private final StringBuilder mBuilder = new StringBuilder();
+
+    /**
+     * @param fractionDigits
+     *            count of digits after the decimal point, see
+     *            {@link NumericRange#getFractionDigits()}.
+     */
+    public DecimalLabelProvider(int fractionDigits) {
+        if (fractionDigits < 0) {
+            throw new IllegalArgumentException(
+                    "Count of fraction digits can not less than 0!");
+        }
+
+        mFractionDigits = fractionDigits;
+        long multiplier = 1;
+        for (int i = 0; i < fractionDigits && i < MAX_LONG_DIGITS; i++) {
+            multiplier *= 10;
+        }
+        mMultiplier = multiplier;
+    }
+
+    public int getFractionDigits() {
+        return mFractionDigits;
+    }
+
+    @Override
+    public CharSequence getLabel(int index, double value) {
+        final double scaled = Math.abs(value) * mMultiplier;
+        if (mFractionDigits > MAX_LONG_DIGITS || !(scaled < Long.MAX_VALUE)) {
+            return BigDecimal.valueOf(value)
+                    .setScale(mFractionDigits, RoundingMode.HALF_UP)
+                    .toPlainString();
+        }
+
+        final long units = Math.round(scaled);
+        final StringBuilder builder = mBuilder;
+        builder.setLength(0);
+        if (value < 0 && units != 0) {
+            builder.append('-');
+        }
+        builder.append(units / mMultiplier);
+        if (mFractionDigits > 0) {
+            builder.append('.');
+            // Leading zeros of the fraction.
+            final long fraction = units % mMultiplier;
+            for (long limit = mMultiplier / 10; limit > 1
+                    && fraction < limit; limit /= 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Distribution of values in equal-width buckets from min to max, kept in a
+ * primitive array. Values can be added and removed incrementally, so a
+ * change of data never needs a full rebucket.
+ * <p>
+ * Bucketing is meant to run off the UI thread. Readers never see the
+ * mutable counts: {@link #publish()} copies them into an immutable
+ * {@link Snapshot}, which is what {@link RangeSeekbar} draws.
+ */
+public class Histogram {
+
+    /**
+     * Immutable counts of buckets at the moment of {@link Histogram#publish()}.
+     */
+    public static final class Snapshot {
+        private final double mMin;
+        private final double mMax;
+        private final long[] mCounts;
+        private final long mMaxCount;
+        private final long mTotalCount;
+
+        Snapshot(double min, double max, long[] counts) {
+            mMin = min;
+            mMax = max;
+            mCounts = counts;
+
+            long maxCount = 0;
+            long totalCount = 0;
+            for (long count : counts) {
+                maxCount = Math.max(maxCount, count);
+                totalCount += count;
+            }
+            mMaxCount = maxCount;
+            mTotalCount = totalCount;
+        }
+
+        public double getMin() {
+            return mMin;
+        }
+
+        public double getMax() {
+            return mMax;
+        }
+
+        public int getBucketCount() {
+            return mCounts.length;
+        }
+
+        public long getCount(int bucket) {
+            return mCounts[bucket];
+        }
+
+        /**
+         * Count of the highest bucket, used to scale bars.
+         */
+        public long getMaxCount() {
+            return mMaxCount;
+        }
+
+        public long getTotalCount() {
+            return mTotalCount;
+        }
+
+        /**
+         * Lower bound of bucket, or max if bucket equals to count of
+         * buckets.
+         */
+        public double getBucketStart(int bucket) {
+            if (bucket >= mCounts.length) {
+                return mMax;
+            }
+            return mMin + (mMax - mMin) * bucket / mCounts.length;
+        }
+    }
+
+    public interface OnPublishListener {
+        /**
+         * Called on the publishing thread.
+         */
+        void onPublished(Histogram histogram, Snapshot snapshot);
+    }
+
+    private final double mMin;
+    private final double mMax;
+    private final double mBucketScale;
+
+    private final long[] mCounts;
+
+    private volatile Snapshot mSnapshot;
+    private volatile OnPublishListener mListener;
+
+    /**
+     * @param min
+     *            lower bound of the first bucket, smaller values are counted
+     *            in it.
+     * @param max
+     *            upper bound of the last bucket, bigger values are counted in
+     *            it.
+     * @param bucketCount
+     *            usually not more than width of seekbar in pixels.
+     */
+    public Histogram(double min, double max, int bucketCount) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException(
+                    "Max should be more than min!");
+        }
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException(
+                    "Count of buckets should be more than 0!");
+        }
+
+        mMin = min;
+        mMax = max;
+        mBucketScale = bucketCount / (max - min);
+        mCounts = new long[bucketCount];
+        mSnapshot = new Snapshot(min, max, new long[bucketCount]);
+    }
+
+    public int getBucketCount() {
+        return mCounts.length;
+    }
+
+    /**
+     * Bucket a value is counted in, clamped to the first and the last one.
+     */
+    public int bucketOf(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Value can not be NaN!");
+        }
+
+        final double bucket = (value - mMin) * mBucketScale;
+        if (bucket <= 0) {
+            return 0;
+        }
+        if (bucket >= mCounts.length - 1) {
+            return mCounts.length - 1;
+        }
+        return (int) bucket;
+    }
+
+    public synchronized void add(double value) {
+        mCounts[bucketOf(value)]++;
+    }
+
+    /**
+     * Remove a value added before.
+     */
+    public synchronized void remove(double value) {
+        decrement(bucketOf(value));
+    }
+
+    /**
+     * Add values[offset, offset + count). Nothing is added if any of them is
+     * NaN.
+     */
+    public synchronized void add(double[] values, int offset, int count) {
+        checkBatch(values, offset, count);
+        final long[] counts = mCounts;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            counts[bucketOf(values[i])]++;
+        }
+    }
+
+    /**
+     * Remove values[offset, offset + count) added before. Nothing is removed
+     * if any of them is NaN or was not added.
+     */
+    public synchronized void remove(double[] values, int offset, int count) {
+        checkBatch(values, offset, count);
+        final long[] counts = mCounts;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            final int bucket = bucketOf(values[i]);
+            if (counts[bucket] == 0) {
+                // Put back what the batch removed so far.
+                for (int j = offset; j < i; j++) {
+                    counts[bucketOf(values[j])]++;
+                }
+                throw emptyBucket(bucket);
+            }
+            counts[bucket]--;
+        }
+    }
+
+    public synchronized void add(long[] values, int offset, int count) {
+        checkRange(values.length, offset, count);
+        final long[] counts = mCounts;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            counts[bucketOf(values[i])]++;
+        }
+    }
+
+    /**
+     * Remove values[offset, offset + count) added before. Nothing is removed
+     * if any of them was not added.
+     */
+    public synchronized void remove(long[] values, int offset, int count) {
+        checkRange(values.length, offset, count);
+        final long[] counts = mCounts;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            final int bucket = bucketOf(values[i]);
+            if (counts[bucket] == 0) {
+                for (int j = offset; j < i; j++) {
+                    counts[bucketOf(values[j])]++;
+                }
+                throw emptyBucket(bucket);
+            }
+            counts[bucket]--;
+        }
+    }
+
+    /**
+     * Throw before a batch changes anything, as the single value methods do.
+     */
+    private static void checkBatch(double[] values, int offset, int count) {
+        checkRange(values.length, offset, count);
+        for (int i = offset, end = offset + count; i < end; i++) {
+            if (Double.isNaN(values[i])) {
+                throw new IllegalArgumentException("Value at " + i
+                        + " can not be NaN!");
+            }
+        }
+    }
+
+    private static void checkRange(int length, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > length - count) {
+            throw new IndexOutOfBoundsException("Offset " + offset
+                    + " and count " + count + " out of length " + length
+                    + "!");
+        }
+    }
+
+    private void decrement(int bucket) {
+        if (mCounts[bucket] == 0) {
+            throw emptyBucket(bucket);
+        }
+        mCounts[bucket]--;
+    }
+
+    private static IllegalStateException emptyBucket(int bucket) {
+        return new IllegalStateException("Bucket " + bucket
+                + " is already empty!");
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] = 0;
+        }
+    }
+
+    /**
+     * Make current counts visible to readers, and notify the listener.
+     */
+    public Snapshot publish() {
+        final Snapshot snapshot;
+        synchronized (this) {
+            snapshot = new Snapshot(mMin, mMax, mCounts.clone());
+            mSnapshot = snapshot;
+        }
+
+        final OnPublishListener listener = mListener;
+        if (listener != null) {
+            listener.onPublished(this, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * The last published snapshot, safe to read from any thread.
+     */
+    public Snapshot getSnapshot() {
+        return mSnapshot;
+    }
+
+    public void setOnPublishListener(OnPublishListener l) {
+        mListener = l;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * A bounded LRU cache of rendered labels and their widths, keyed by index of
+ * step. Everything is stored in arrays allocated once, so lookups and
+ * evictions never allocate.
+ * <p>
+ * Usage is similar to SparseArray: find a slot by {@link #indexOfKey(int)},
+ * then read it by {@link #labelAt(int)} and {@link #widthAt(int)}. A slot is
+ * only valid until next {@link #put(int, String, float)}.
+ */
+public class LabelCache {
+
+    private static final int NONE = -1;
+
+    private final int mCapacity;
+    private int mSize;
+
+    private final int[] mKeys;
+    private final String[] mLabels;
+    private final float[] mWidths;
+
+    /**
+     * Doubly linked list of slots, from most to least recently used.
+     */
+    private final int[] mPrev;
+    private final int[] mNext;
+    private int mHead = NONE;
+    private int mTail = NONE;
+
+    /**
+     * Hash buckets, every bucket is a singly linked list of slots.
+     */
+    private final int[] mBuckets;
+    private final int[] mBucketNext;
+
+    public LabelCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Capacity should be more than 0!");
+        }
+
+        mCapacity = capacity;
+        mKeys = new int[capacity];
+        mLabels = new String[capacity];
+        mWidths = new float[capacity];
+        mPrev = new int[capacity];
+        mNext = new int[capacity];
+        mBucketNext = new int[capacity];
+
+        int bucketCount = 1;
+        while (bucketCount < capacity * 2) {
+            bucketCount <<= 1;
+        }
+        mBuckets = new int[bucketCount];
+        clear();
+    }
+
+    /**
+     * Estimated bytes of arrays and cached labels, see
+     * {@link MemoryFootprint}.
+     */
+    public long getMemoryFootprint() {
+        return MemoryFootprint.of(mKeys) + MemoryFootprint.ofStrings(mLabels)
+                + MemoryFootprint.of(mWidths) + MemoryFootprint.of(mPrev)
+                + MemoryFootprint.of(mNext) + MemoryFootprint.of(mBuckets)
+                + MemoryFootprint.of(mBucketNext);
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        for (int i = 0; i < mBuckets.length; i++) {
+            mBuckets[i] = NONE;
+        }
+        for (int i = 0; i < mSize; i++) {
+            mLabels[i] = null;
+        }
+        mSize = 0;
+        mHead = NONE;
+        mTail = NONE;
+    }
+
+    /**
+     * @return slot of key, or -1 if not cached. A found slot becomes the most
+     *         recently used one.
+     */
+    public int indexOfKey(int key) {
+        int slot = mBuckets[bucketOf(key)];
+        while (slot != NONE) {
+            if (mKeys[slot] == key) {
+                moveToHead(slot);
+                return slot;
+            }
+            slot = mBucketNext[slot];
+        }
+        return NONE;
+    }
+
+    public String labelAt(int slot) {
+        return mLabels[slot];
+    }
+
+    public float widthAt(int slot) {
+        return mWidths[slot];
+    }
+
+    /**
+     * Cache label of key, evicting the least recently used one if full.
+     *
+     * @return slot of key.
+     */
+    public int put(int key, String label, float width) {
+        int slot = indexOfKey(key);
+        if (slot == NONE) {
+            if (mSize < mCapacity) {
+                slot = mSize++;
+            } else {
+                slot = mTail;
+                unlink(slot);
+                removeFromBucket(slot);
+            }
+
+            mKeys[slot] = key;
+            final int bucket = bucketOf(key);
+            mBucketNext[slot] = mBuckets[bucket];
+            mBuckets[bucket] = slot;
+            linkHead(slot);
+        }
+
+        mLabels[slot] = label;
+        mWidths[slot] = width;
+        return slot;
+    }
+
+    private int bucketOf(int key) {
+        final int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (mBuckets.length - 1);
+    }
+
+    private void moveToHead(int slot) {
+        if (slot == mHead) {
+            return;
+        }
+        unlink(slot);
+        linkHead(slot);
+    }
+
+    private void linkHead(int slot) {
+        mPrev[slot] = NONE;
+        mNext[slot] = mHead;
+        if (mHead != NONE) {
+            mPrev[mHead] = slot;
+        }
+        mHead = slot;
+        if (mTail == NONE) {
+            mTail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        final int prev = mPrev[slot];
+        final int next = mNext[slot];
+        if (prev != NONE) {
+            mNext[prev] = next;
+        } else {
+            mHead = next;
+        }
+        if (next != NONE) {
+            mPrev[next] = prev;
+        } else {
+            mTail = prev;
+        }
+    }
+
+    private void removeFromBucket(int slot) {
+        final int bucket = bucketOf(mKeys[slot]);
+        int current = mBuckets[bucket];
+        int previous = NONE;
+        while (current != NONE) {
+            if (current == slot) {
+                if (previous == NONE) {
+                    mBuckets[bucket] = mBucketNext[slot];
+                } else {
+                    mBucketNext[previous] = mBucketNext[slot];
+                }
+                return;
+            }
+            previous = current;
+            current = mBucketNext[current];
+        }
+    }
+}
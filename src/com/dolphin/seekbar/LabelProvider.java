@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Creates text of marks on demand, used by {@link RangeSeekbar} in numeric
+ * mode instead of an array of text marks.
+ */
+public interface LabelProvider {
+
+    /**
+     * @param index
+     *            index of the step, from 0 to count of steps minus 1.
+     * @param value
+     *            value of the step.
+     * @return text of the mark, should not be null.
+     */
+    CharSequence getLabel(int index, double value);
+}
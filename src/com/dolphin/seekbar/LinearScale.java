@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Marks are equidistant. This is the default scale.
+ */
+public class LinearScale implements Scale {
+
+    public static final LinearScale INSTANCE = new LinearScale();
+
+    @Override
+    public float toPosition(float fraction) {
+        return fraction;
+    }
+
+    @Override
+    public float toFraction(float position) {
+        return position;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Logarithmic scale which gives more room to the low end of the domain:
+ * position = ln(1 + c * fraction) / ln(1 + c).
+ */
+public class LogScale implements Scale {
+
+    private final double mCurvature;
+    private final double mLogOfEnd;
+
+    /**
+     * @param curvature
+     *            more than 0, bigger means more room for the low end. For
+     *            example 99 makes the first 1% of the domain take 15% of the
+     *            seekbar.
+     */
+    public LogScale(double curvature) {
+        if (!(curvature > 0)) {
+            throw new IllegalArgumentException(
+                    "Curvature should be more than 0!");
+        }
+
+        mCurvature = curvature;
+        mLogOfEnd = Math.log1p(curvature);
+    }
+
+    @Override
+    public float toPosition(float fraction) {
+        return (float) (Math.log1p(mCurvature * fraction) / mLogOfEnd);
+    }
+
+    @Override
+    public float toFraction(float position) {
+        return (float) (Math.expm1(position * mLogOfEnd) / mCurvature);
+    }
+}
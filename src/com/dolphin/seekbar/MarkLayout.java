@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Locations of text marks and their click areas, without any Android
+ * dependency. Every click area shares the same top and bottom, so only left
+ * and right are stored per mark.
+ * <p>
+ * Per-mark data is kept in parallel primitive arrays, there is no object per
+ * mark. Left of click area is the truncated draw left of text, so it is not
+ * stored.
+ * <p>
+ * When there are more marks than the width can hold, a decimation pass keeps
+ * a subset of text marks which do not overlap each other. Only these marks
+ * are drawn and clickable, so cost of drawing depends on width of the view
+ * instead of count of marks.
+ * <p>
+ * Click areas of drawn marks are kept as sorted, disjoint intervals, so the
+ * clicked mark is found by binary search whatever the spacing of marks is.
+ */
+public class MarkLayout {
+
+    private int mCount;
+
+    /**
+     * X-axis location of every mark, in ascending order.
+     */
+    private float[] mMarkXArray = new float[0];
+
+    private float[] mTextDrawLeftArray = new float[0];
+    private int[] mClickRightArray = new int[0];
+
+    /**
+     * Indexes of marks which should be drawn, in ascending order.
+     */
+    private int[] mVisibleIndexArray = new int[0];
+    private int mVisibleCount;
+
+    private boolean mDecimationEnabled = true;
+    private float mMinTextSpacing;
+
+    /**
+     * Hit test index: disjoint intervals [left, right) in ascending order,
+     * and the mark every interval belongs to.
+     */
+    private int[] mHitLeftArray = new int[0];
+    private int[] mHitRightArray = new int[0];
+    private int[] mHitMarkArray = new int[0];
+    private int mHitCount;
+
+    private int mClickTop;
+    private int mClickBottom;
+
+    /**
+     * Whether text marks overlapping their neighbours should be skipped.
+     * Enabled by default. Takes effect on next {@link #layout}.
+     */
+    public void setDecimationEnabled(boolean enabled) {
+        mDecimationEnabled = enabled;
+    }
+
+    public boolean isDecimationEnabled() {
+        return mDecimationEnabled;
+    }
+
+    /**
+     * Minimal space between two drawn text marks when decimation is enabled.
+     */
+    public void setMinTextSpacing(float spacing) {
+        mMinTextSpacing = spacing < 0 ? 0 : spacing;
+    }
+
+    /**
+     * Calculate draw locations and click areas of text marks. Arrays are
+     * reused when they are big enough.
+     *
+     * @param textWidths
+     *            measured width of every text mark.
+     * @param count
+     *            count of marks, should not be bigger than textWidths.length.
+     * @param seekbarLeft
+     *            x-axis location of first mark.
+     * @param partLength
+     *            length between two marks.
+     * @param lastTextRight
+     *            right edge of the last text mark, which is aligned to the
+     *            right of view instead of centered on its mark.
+     * @param clickTop
+     *            top of click areas.
+     * @param clickBottom
+     *            bottom of click areas.
+     */
+    public void layout(float[] textWidths, int count, float seekbarLeft,
+            float partLength, float lastTextRight, int clickTop,
+            int clickBottom) {
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            mMarkXArray[i] = seekbarLeft + i * partLength;
+        }
+        layoutMarks(textWidths, count, lastTextRight, clickTop, clickBottom);
+    }
+
+    /**
+     * Same as {@link #layout(float[], int, float, float, float, int, int)},
+     * but marks are located at any ascending x-axis locations.
+     *
+     * @param markX
+     *            x-axis location of every mark, in ascending order.
+     */
+    public void layout(float[] textWidths, float[] markX, int count,
+            float lastTextRight, int clickTop, int clickBottom) {
+        ensureCapacity(count);
+        System.arraycopy(markX, 0, mMarkXArray, 0, count);
+        layoutMarks(textWidths, count, lastTextRight, clickTop, clickBottom);
+    }
+
+    /**
+     * Array to be filled with ascending x-axis location of count marks, then
+     * laid out by {@link #layout(float[], int, float, int, int)}, so that
+     * callers need no array of their own. Reused when big enough.
+     */
+    public float[] obtainMarkXArray(int count) {
+        ensureCapacity(count);
+        return mMarkXArray;
+    }
+
+    /**
+     * Same as {@link #layout(float[], float[], int, float, int, int)}, with
+     * locations already filled in {@link #obtainMarkXArray(int)}.
+     */
+    public void layout(float[] textWidths, int count, float lastTextRight,
+            int clickTop, int clickBottom) {
+        if (mMarkXArray.length < count) {
+            throw new IllegalArgumentException(
+                    "Locations of marks should be filled by obtainMarkXArray!");
+        }
+        layoutMarks(textWidths, count, lastTextRight, clickTop, clickBottom);
+    }
+
+    private void ensureCapacity(int count) {
+        if (mTextDrawLeftArray.length < count) {
+            mMarkXArray = new float[count];
+            mTextDrawLeftArray = new float[count];
+            mClickRightArray = new int[count];
+            mVisibleIndexArray = new int[count];
+            mHitLeftArray = new int[count];
+            mHitRightArray = new int[count];
+            mHitMarkArray = new int[count];
+        }
+    }
+
+    private void layoutMarks(float[] textWidths, int count,
+            float lastTextRight, int clickTop, int clickBottom) {
+        mCount = count;
+        mClickTop = clickTop;
+        mClickBottom = clickBottom;
+
+        for (int i = 0; i < count; i++) {
+            final float textWidth = textWidths[i];
+
+            float textDrawLeft = 0;
+            // The last text mark's draw location should be adjust.
+            if (i == count - 1) {
+                textDrawLeft = lastTextRight - textWidth;
+            } else {
+                textDrawLeft = mMarkXArray[i] - textWidth / 2;
+            }
+            mTextDrawLeftArray[i] = textDrawLeft;
+
+            mClickRightArray[i] = (int) ((int) textDrawLeft + textWidth);
+        }
+
+        decimate(textWidths);
+        buildHitIndex();
+    }
+
+    /**
+     * Build disjoint hit intervals from click areas of visible marks. If two
+     * neighbours overlap, which only happens without decimation, they are
+     * split at middle of the overlap.
+     */
+    private void buildHitIndex() {
+        int hitCount = 0;
+        int lastRight = Integer.MIN_VALUE;
+        for (int n = 0; n < mVisibleCount; n++) {
+            final int i = mVisibleIndexArray[n];
+            int left = (int) mTextDrawLeftArray[i];
+            final int right = mClickRightArray[i];
+            if (left >= right) {
+                continue;
+            }
+
+            if (left < lastRight) {
+                final int middle = (left + lastRight) / 2;
+                mHitRightArray[hitCount - 1] = Math.max(
+                        mHitLeftArray[hitCount - 1], middle);
+                left = middle;
+            }
+            left = Math.max(left, hitCount > 0 ? mHitRightArray[hitCount - 1]
+                    : left);
+            if (left >= right) {
+                continue;
+            }
+
+            mHitLeftArray[hitCount] = left;
+            mHitRightArray[hitCount] = right;
+            mHitMarkArray[hitCount] = i;
+            hitCount++;
+            lastRight = right;
+        }
+        mHitCount = hitCount;
+    }
+
+    /**
+     * Pick text marks to draw in one sweep from left to right: a mark is kept
+     * if it does not overlap the last kept one. The last mark is always kept,
+     * replacing kept marks it overlaps. Click areas of skipped marks are made
+     * empty so they can not be clicked.
+     */
+    private void decimate(float[] textWidths) {
+        final int count = mCount;
+        final int[] visible = mVisibleIndexArray;
+        int visibleCount = 0;
+
+        if (!mDecimationEnabled) {
+            for (int i = 0; i < count; i++) {
+                visible[i] = i;
+            }
+            mVisibleCount = count;
+            return;
+        }
+
+        float lastRight = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            final float left = mTextDrawLeftArray[i];
+            if (left >= lastRight + mMinTextSpacing) {
+                visible[visibleCount++] = i;
+                lastRight = left + textWidths[i];
+            } else {
+                mClickRightArray[i] = (int) left;
+            }
+        }
+
+        if (count > 0 && visible[visibleCount - 1] != count - 1) {
+            final int last = count - 1;
+            final float lastLeft = mTextDrawLeftArray[last];
+            while (visibleCount > 0) {
+                final int kept = visible[visibleCount - 1];
+                if (mTextDrawLeftArray[kept] + textWidths[kept]
+                        + mMinTextSpacing <= lastLeft) {
+                    break;
+                }
+                mClickRightArray[kept] = (int) mTextDrawLeftArray[kept];
+                visibleCount--;
+            }
+            visible[visibleCount++] = last;
+            mClickRightArray[last] = (int) ((int) lastLeft + textWidths[last]);
+        }
+
+        mVisibleCount = visibleCount;
+    }
+
+    /**
+     * Count of text marks which should be drawn.
+     */
+    public int getVisibleCount() {
+        return mVisibleCount;
+    }
+
+    /**
+     * Index of the n-th text mark which should be drawn.
+     */
+    public int getVisibleIndex(int n) {
+        return mVisibleIndexArray[n];
+    }
+
+    /**
+     * Binary search in indexes of visible marks.
+     *
+     * @return the first n that {@link #getVisibleIndex(int)} is not less than
+     *         index, or {@link #getVisibleCount()} if there is no such one.
+     */
+    public int lowerBoundVisible(int index) {
+        int low = 0;
+        int high = mVisibleCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (mVisibleIndexArray[mid] < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public float getMarkX(int index) {
+        return mMarkXArray[index];
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public float getTextDrawLeft(int index) {
+        return mTextDrawLeftArray[index];
+    }
+
+    public int getClickLeft(int index) {
+        return (int) mTextDrawLeftArray[index];
+    }
+
+    public int getClickRight(int index) {
+        return mClickRightArray[index];
+    }
+
+    public int getClickTop() {
+        return mClickTop;
+    }
+
+    public int getClickBottom() {
+        return mClickBottom;
+    }
+
+    /**
+     * Same rule as {@link android.graphics.Rect#contains(int, int)}.
+     */
+    public boolean contains(int index, int x, int y) {
+        final int left = (int) mTextDrawLeftArray[index];
+        final int right = mClickRightArray[index];
+        return left < right && mClickTop < mClickBottom && x >= left
+                && x < right && y >= mClickTop && y < mClickBottom;
+    }
+
+    /**
+     * Estimated bytes of arrays, see {@link MemoryFootprint}.
+     */
+    public long getMemoryFootprint() {
+        return MemoryFootprint.of(mMarkXArray)
+                + MemoryFootprint.of(mTextDrawLeftArray)
+                + MemoryFootprint.of(mClickRightArray)
+                + MemoryFootprint.of(mVisibleIndexArray)
+                + MemoryFootprint.of(mHitLeftArray)
+                + MemoryFootprint.of(mHitRightArray)
+                + MemoryFootprint.of(mHitMarkArray);
+    }
+
+    /**
+     * Find the text mark clicked at x-y.
+     *
+     * @return index of mark, or -1 if nothing clicked.
+     */
+    public int findClickIndex(int x, int y) {
+        if (mHitCount == 0 || y < mClickTop || y > mClickBottom) {
+            return -1;
+        }
+
+        // The last interval whose left is not more than x.
+        int low = 0;
+        int high = mHitCount - 1;
+        if (x < mHitLeftArray[0]) {
+            return -1;
+        }
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (mHitLeftArray[mid] <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (x >= mHitRightArray[low]) {
+            return -1;
+        }
+        final int index = mHitMarkArray[low];
+        return contains(index, x, y) ? index : -1;
+    }
+}
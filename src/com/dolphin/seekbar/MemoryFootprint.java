@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Estimates of retained size used by the getMemoryFootprint() methods, on
+ * the layout of ART: 8 bytes of object header, 4 bytes of array length,
+ * 4 bytes per reference and 8 bytes alignment. Strings are counted without
+ * compression. Good for budgeting, not exact on every runtime.
+ */
+public final class MemoryFootprint {
+
+    private static final int OBJECT_HEADER = 8;
+    private static final int ARRAY_HEADER = OBJECT_HEADER + 4;
+    private static final int REFERENCE = 4;
+
+    /**
+     * Header, count and hash of a String.
+     */
+    private static final int STRING_HEADER = OBJECT_HEADER + 8;
+
+    private MemoryFootprint() {
+    }
+
+    public static long of(int[] array) {
+        return array != null ? array(array.length, 4) : 0;
+    }
+
+    public static long of(long[] array) {
+        return array != null ? array(array.length, 8) : 0;
+    }
+
+    public static long of(float[] array) {
+        return array != null ? array(array.length, 4) : 0;
+    }
+
+    public static long of(boolean[] array) {
+        return array != null ? array(array.length, 1) : 0;
+    }
+
+    /**
+     * Only the array of references, not the objects.
+     */
+    public static long of(Object[] array) {
+        return array != null ? array(array.length, REFERENCE) : 0;
+    }
+
+    public static long of(String string) {
+        return string != null ? align(STRING_HEADER + 2L * string.length())
+                : 0;
+    }
+
+    /**
+     * Array of strings and every string in it.
+     */
+    public static long ofStrings(String[] array) {
+        if (array == null) {
+            return 0;
+        }
+
+        long bytes = of(array);
+        for (String string : array) {
+            bytes += of(string);
+        }
+        return bytes;
+    }
+
+    private static long array(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * {@link SeekbarMetrics} keeping every metric in a {@link TimeHistogram},
+ * and invalidations in per-second slots of a ring. Nothing is allocated
+ * after construction. Should be read on the main thread.
+ */
+public class MetricsRecorder implements SeekbarMetrics {
+
+    /**
+     * Count of seconds of invalidations kept.
+     */
+    private static final int RATE_WINDOW = 8;
+
+    private final TimeHistogram mDrawTimes = new TimeHistogram();
+    private final TimeHistogram mTouchMoveTimes = new TimeHistogram();
+    private final TimeHistogram mTouchToDrawLatencies = new TimeHistogram();
+    private final TimeHistogram mListenerTimes = new TimeHistogram();
+
+    /**
+     * Invalidations of every second, indexed by second modulo RATE_WINDOW.
+     */
+    private final int[] mInvalidateSlots = new int[RATE_WINDOW];
+    private final long[] mInvalidateSlotSeconds = new long[RATE_WINDOW];
+    private long mInvalidateCount;
+
+    @Override
+    public void recordDrawTime(long nanos) {
+        mDrawTimes.record(nanos);
+    }
+
+    @Override
+    public void recordTouchMoveTime(long nanos) {
+        mTouchMoveTimes.record(nanos);
+    }
+
+    @Override
+    public void recordTouchToDrawLatency(long millis) {
+        mTouchToDrawLatencies.record(millis);
+    }
+
+    @Override
+    public void recordInvalidate(long uptimeMillis) {
+        final long second = uptimeMillis / 1000;
+        final int slot = (int) (second % RATE_WINDOW);
+        if (mInvalidateSlotSeconds[slot] != second) {
+            mInvalidateSlotSeconds[slot] = second;
+            mInvalidateSlots[slot] = 0;
+        }
+        mInvalidateSlots[slot]++;
+        mInvalidateCount++;
+    }
+
+    @Override
+    public void recordListenerTime(long nanos) {
+        mListenerTimes.record(nanos);
+    }
+
+    /**
+     * Durations of onDraw, in nanoseconds.
+     */
+    public TimeHistogram getDrawTimes() {
+        return mDrawTimes;
+    }
+
+    /**
+     * Durations of handling move events, in nanoseconds.
+     */
+    public TimeHistogram getTouchMoveTimes() {
+        return mTouchMoveTimes;
+    }
+
+    /**
+     * Latencies from move events to frames, in milliseconds.
+     */
+    public TimeHistogram getTouchToDrawLatencies() {
+        return mTouchToDrawLatencies;
+    }
+
+    /**
+     * Durations of listener calls, in nanoseconds.
+     */
+    public TimeHistogram getListenerTimes() {
+        return mListenerTimes;
+    }
+
+    public long getInvalidateCount() {
+        return mInvalidateCount;
+    }
+
+    /**
+     * Average invalidations per second over the last complete seconds.
+     * 
+     * @param uptimeMillis
+     *            current time.
+     * @param seconds
+     *            from 1 to 7.
+     */
+    public float getInvalidationsPerSecond(long uptimeMillis, int seconds) {
+        if (seconds <= 0 || seconds >= RATE_WINDOW) {
+            throw new IllegalArgumentException("Seconds should from 1 to "
+                    + (RATE_WINDOW - 1) + "!");
+        }
+
+        final long current = uptimeMillis / 1000;
+        long total = 0;
+        for (long second = current - seconds; second < current; second++) {
+            final int slot = (int) (second % RATE_WINDOW);
+            if (second >= 0 && mInvalidateSlotSeconds[slot] == second) {
+                total += mInvalidateSlots[slot];
+            }
+        }
+        return (float) total / seconds;
+    }
+
+    public void reset() {
+        mDrawTimes.reset();
+        mTouchMoveTimes.reset();
+        mTouchToDrawLatencies.reset();
+        mListenerTimes.reset();
+        for (int i = 0; i < RATE_WINDOW; i++) {
+            mInvalidateSlots[i] = 0;
+            mInvalidateSlotSeconds[i] = 0;
+        }
+        mInvalidateCount = 0;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.math.BigDecimal;
+
+/**
+ * A numeric domain from min to max divided by step. Only the bounds are kept,
+ * so memory does not depend on count of steps.
+ */
+public class NumericRange {
+
+    /**
+     * Cursors are located by float indexes, which are exact for integers
+     * only up to 2^24.
+     */
+    public static final int MAX_COUNT = 1 << 24;
+
+    private final double mMin;
+    private final double mMax;
+    private final double mStep;
+    private final int mCount;
+    private final int mFractionDigits;
+
+    /**
+     * @param min
+     *            value of the first step.
+     * @param max
+     *            value of the last step. If (max - min) is not a multiple of
+     *            step, the last step is the biggest one not more than max.
+     * @param step
+     *            distance between two steps, should be more than 0. There
+     *            should be at most {@link #MAX_COUNT} steps.
+     */
+    public NumericRange(double min, double max, double step) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("Step should be more than 0!");
+        }
+        if (!(max > min)) {
+            throw new IllegalArgumentException(
+                    "Max should be more than min!");
+        }
+
+        final double count = Math.floor((max - min) / step + 1e-9) + 1;
+        if (count > MAX_COUNT) {
+            throw new IllegalArgumentException(
+                    "Count of steps should not be more than " + MAX_COUNT
+                            + ", but it is " + (long) count + "!");
+        }
+
+        mMin = min;
+        mStep = step;
+        mCount = (int) count;
+        mMax = min + (mCount - 1) * step;
+        mFractionDigits = Math.max(0, Math.max(scaleOf(min), scaleOf(step)));
+    }
+
+    private static int scaleOf(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().scale();
+    }
+
+    public double getMin() {
+        return mMin;
+    }
+
+    public double getMax() {
+        return mMax;
+    }
+
+    public double getStep() {
+        return mStep;
+    }
+
+    /**
+     * Count of steps, including both min and max.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Count of fraction digits which print every value of the domain
+     * exactly, as implied by min and step.
+     */
+    public int getFractionDigits() {
+        return mFractionDigits;
+    }
+
+    /**
+     * Value at a step index, clamped to min and max.
+     */
+    public double valueAt(int index) {
+        if (index <= 0) {
+            return mMin;
+        }
+        if (index >= mCount - 1) {
+            return mMax;
+        }
+        return mMin + (double) index * mStep;
+    }
+
+    /**
+     * Value at a fractional step index, clamped to min and max.
+     */
+    public double valueAt(float index) {
+        if (index <= 0) {
+            return mMin;
+        }
+        if (index >= mCount - 1) {
+            return mMax;
+        }
+        return mMin + index * mStep;
+    }
+
+    /**
+     * Index of the nearest step to value, clamped to the domain.
+     */
+    public int indexOf(double value) {
+        final double index = Math.rint((value - mMin) / mStep);
+        if (index <= 0) {
+            return 0;
+        }
+        if (index >= mCount - 1) {
+            return mCount - 1;
+        }
+        return (int) index;
+    }
+
+    /**
+     * Fractional step index of value, clamped to the domain.
+     */
+    public float fractionOf(double value) {
+        final double index = (value - mMin) / mStep;
+        if (index <= 0) {
+            return 0;
+        }
+        if (index >= mCount - 1) {
+            return mCount - 1;
+        }
+        return (float) index;
+    }
+
+    /**
+     * Whether every value of the domain is an integer.
+     */
+    public boolean isIntegral() {
+        return mMin == Math.rint(mMin) && mStep == Math.rint(mStep);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Scale made of linear pieces between break points. For example fractions
+ * {0, 0.1, 1} and positions {0, 0.5, 1} give the first 10% of the domain
+ * half of the seekbar.
+ */
+public class PiecewiseLinearScale implements Scale {
+
+    private final float[] mFractions;
+    private final float[] mPositions;
+
+    /**
+     * @param fractions
+     *            break points in the domain, ascending from 0 to 1.
+     * @param positions
+     *            locations of break points on the seekbar, ascending from 0
+     *            to 1.
+     */
+    public PiecewiseLinearScale(float[] fractions, float[] positions) {
+        if (fractions == null || positions == null
+                || fractions.length != positions.length
+                || fractions.length < 2) {
+            throw new IllegalArgumentException(
+                    "Need at least two break points of the same count!");
+        }
+
+        final int last = fractions.length - 1;
+        if (fractions[0] != 0 || fractions[last] != 1 || positions[0] != 0
+                || positions[last] != 1) {
+            throw new IllegalArgumentException(
+                    "Break points should start at 0 and end at 1!");
+        }
+        for (int i = 1; i <= last; i++) {
+            if (fractions[i] <= fractions[i - 1]
+                    || positions[i] <= positions[i - 1]) {
+                throw new IllegalArgumentException(
+                        "Break points should be ascending!");
+            }
+        }
+
+        mFractions = fractions.clone();
+        mPositions = positions.clone();
+    }
+
+    @Override
+    public float toPosition(float fraction) {
+        return interpolate(mFractions, mPositions, fraction);
+    }
+
+    @Override
+    public float toFraction(float position) {
+        return interpolate(mPositions, mFractions, position);
+    }
+
+    private static float interpolate(float[] from, float[] to, float value) {
+        if (value <= 0) {
+            return 0;
+        }
+        if (value >= 1) {
+            return 1;
+        }
+
+        int i = 1;
+        while (from[i] < value) {
+            i++;
+        }
+        final float t = (value - from[i - 1]) / (from[i] - from[i - 1]);
+        return to[i - 1] + t * (to[i] - to[i - 1]);
+    }
+}
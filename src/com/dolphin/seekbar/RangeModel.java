@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Cursor state of {@link RangeSeekbar} without any Android dependency.
+ * Positions are kept in "mark space": 0 is the first mark, markCount - 1 is
+ * the last one, and a fractional value means the cursor is between two
+ * marks. Snapping, collision and clamping all happen here, so the view only
+ * has to convert pixels and run the animations.
+ * <p>
+ * There can be any even count of cursors, kept in ascending order in
+ * primitive arrays. Cursor 2n and 2n + 1 are the bounds of the n-th selected
+ * band. A moving cursor only checks its two neighbours, so cost of an event
+ * does not depend on count of cursors.
+ */
+public class RangeModel {
+
+    /**
+     * Returned by move methods when nothing changed.
+     */
+    public static final int MOVE_NONE = 0;
+
+    /**
+     * Flag set by move methods when the moving cursor changed position.
+     */
+    public static final int MOVE_CHANGED = 1;
+
+    /**
+     * Flag set by move methods when a neighbour has been pushed to its next
+     * index and should be animated there, see {@link #getPushedCursor()}.
+     */
+    public static final int MOVE_PUSHED = 1 << 1;
+
+    private int mMarkCount;
+    private int mCursorCount;
+
+    private float[] mIndexes;
+    private int[] mNextIndexes;
+
+    /**
+     * Minimal distance between two cursors, in mark space. Usually the sum of
+     * half widths of both cursors divided by length of one part.
+     */
+    private float mCursorGap;
+
+    private int mPushedCursor = -1;
+    private int mPushedFirst;
+    private int mPushedLast;
+
+    public RangeModel() {
+        this(0, 2);
+    }
+
+    public RangeModel(int markCount) {
+        this(markCount, 2);
+    }
+
+    public RangeModel(int markCount, int cursorCount) {
+        setCursorCount(cursorCount);
+        setMarkCount(markCount);
+    }
+
+    /**
+     * Change count of marks, cursors will be spread from the first mark to
+     * the last one.
+     */
+    public void setMarkCount(int markCount) {
+        if (markCount < 0) {
+            throw new IllegalArgumentException(
+                    "Count of marks can not less than 0!");
+        }
+
+        mMarkCount = markCount;
+        resetCursors();
+    }
+
+    /**
+     * Change count of cursors, cursors will be spread from the first mark to
+     * the last one.
+     *
+     * @param cursorCount
+     *            even number, at least 2.
+     */
+    public void setCursorCount(int cursorCount) {
+        if (cursorCount < 2 || cursorCount % 2 != 0) {
+            throw new IllegalArgumentException(
+                    "Count of cursors should be an even number from 2!");
+        }
+
+        mCursorCount = cursorCount;
+        mIndexes = new float[cursorCount];
+        mNextIndexes = new int[cursorCount];
+        resetCursors();
+    }
+
+    private void resetCursors() {
+        final int maxIndex = Math.max(mMarkCount - 1, 0);
+        final int last = mCursorCount - 1;
+        for (int i = 0; i < mCursorCount; i++) {
+            final int index = (int) ((long) maxIndex * i / last);
+            mIndexes[i] = index;
+            mNextIndexes[i] = index;
+        }
+    }
+
+    public int getMarkCount() {
+        return mMarkCount;
+    }
+
+    public int getMaxIndex() {
+        return mMarkCount - 1;
+    }
+
+    public int getCursorCount() {
+        return mCursorCount;
+    }
+
+    public void setCursorGap(float gap) {
+        mCursorGap = gap < 0 ? 0 : gap;
+    }
+
+    public float getCursorGap() {
+        return mCursorGap;
+    }
+
+    public float getIndex(int cursor) {
+        return mIndexes[cursor];
+    }
+
+    public int getNextIndex(int cursor) {
+        return mNextIndexes[cursor];
+    }
+
+    /**
+     * Set position of cursor directly, used by animations.
+     */
+    public void setIndex(int cursor, float index) {
+        mIndexes[cursor] = index;
+    }
+
+    public void setNextIndex(int cursor, int index) {
+        mNextIndexes[cursor] = index;
+    }
+
+    /**
+     * Whether the whole range is selected by a single band.
+     */
+    public boolean isFullSelected() {
+        return mCursorCount == 2 && mIndexes[0] == 0
+                && mIndexes[1] == mMarkCount - 1;
+    }
+
+    /**
+     * Move a cursor by delta (in mark space).
+     *
+     * @param delta
+     *            movement, negative means moving to left.
+     * @param lowerPinned
+     *            whether the lower neighbour can not be pushed, e.g. it is
+     *            being touched or animated.
+     * @param upperPinned
+     *            whether the upper neighbour can not be pushed.
+     * @return {@link #MOVE_NONE} or a combination of {@link #MOVE_CHANGED}
+     *         and {@link #MOVE_PUSHED}.
+     */
+    public int move(int cursor, float delta, boolean lowerPinned,
+            boolean upperPinned) {
+        final int maxIndex = mMarkCount - 1;
+        final float index = mIndexes[cursor];
+        mPushedCursor = -1;
+
+        if ((delta < 0 && index == 0) || (delta > 0 && index == maxIndex)) {
+            return MOVE_NONE;
+        }
+
+        // Check whether cursor will move out of boundary
+        if (index + delta < 0) {
+            delta = -index;
+        } else if (index + delta > maxIndex) {
+            delta = maxIndex - index;
+        }
+
+        int result = MOVE_NONE;
+
+        // Check whether cursor will collide with the upper one.
+        final int upper = cursor + 1;
+        if (upper < mCursorCount
+                && index + delta + mCursorGap >= mIndexes[upper]) {
+            final int target = (int) (mIndexes[upper] + 1);
+            if (upperPinned || !canPush(upper, target, true)) {
+                // Just move cursor to the left side of upper one.
+                delta = mIndexes[upper] - mCursorGap - index;
+            } else {
+                // Push upper cursor to higher location, but never pass its
+                // next location.
+                delta = Math.min(delta, target - mCursorGap - index);
+                mNextIndexes[upper] = target;
+                mPushedCursor = upper;
+                result |= MOVE_PUSHED;
+            }
+        }
+
+        // And with the lower one.
+        final int lower = cursor - 1;
+        if (lower >= 0 && index + delta < mIndexes[lower] + mCursorGap) {
+            final int target = (int) (mIndexes[lower] - 1);
+            if (lowerPinned || !canPush(lower, target, false)) {
+                delta = mIndexes[lower] + mCursorGap - index;
+            } else {
+                delta = Math.max(delta, target + mCursorGap - index);
+                mNextIndexes[lower] = target;
+                mPushedCursor = lower;
+                result |= MOVE_PUSHED;
+            }
+        }
+
+        if (delta == 0) {
+            return result;
+        }
+
+        mIndexes[cursor] = index + delta;
+        return result | MOVE_CHANGED;
+    }
+
+    /**
+     * Whether a cursor can be pushed to target without reaching the
+     * boundary or its own neighbour on the other side.
+     */
+    private boolean canPush(int cursor, int target, boolean up) {
+        if (target < 0 || target > mMarkCount - 1) {
+            return false;
+        }
+        if (up) {
+            return cursor + 1 >= mCursorCount
+                    || target + mCursorGap <= mIndexes[cursor + 1];
+        }
+        return cursor == 0 || target - mCursorGap >= mIndexes[cursor - 1];
+    }
+
+    /**
+     * Cursor pushed by the last {@link #move(int, float, boolean, boolean)},
+     * or -1.
+     */
+    public int getPushedCursor() {
+        return mPushedCursor;
+    }
+
+    /**
+     * If cursor is between two marks, decide which one it should be located
+     * on. Two neighbours will never be located on the same mark.
+     *
+     * @return true if cursor needs to move to {@link #getNextIndex(int)}.
+     */
+    public boolean snap(int cursor) {
+        final float index = mIndexes[cursor];
+        final int lower = (int) Math.floor(index);
+        final int higher = (int) Math.ceil(index);
+
+        final float offset = index - lower;
+        if (offset == 0) {
+            return false;
+        }
+
+        if (offset < 0.5f) {
+            mNextIndexes[cursor] = lower;
+            // If distance to the lower neighbour is less than 1, and it is
+            // going to the same mark, this one can only go to the higher.
+            final int neighbour = cursor - 1;
+            if (neighbour >= 0 && Math.abs(index - mIndexes[neighbour]) <= 1
+                    && lower == mNextIndexes[neighbour]) {
+                mNextIndexes[cursor] = higher;
+            }
+        } else if (offset > 0.5f) {
+            mNextIndexes[cursor] = higher;
+            final int neighbour = cursor + 1;
+            if (neighbour < mCursorCount
+                    && Math.abs(index - mIndexes[neighbour]) <= 1
+                    && higher == mNextIndexes[neighbour]) {
+                mNextIndexes[cursor] = lower;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find nearest cursor to the mark at index by binary search. The lower
+     * one wins when two have the same distance.
+     */
+    public int findNearestCursor(int index) {
+        int low = 0;
+        int high = mCursorCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (mIndexes[mid] < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (low == 0) {
+            return 0;
+        }
+        if (low == mCursorCount) {
+            return mCursorCount - 1;
+        }
+        return index - mIndexes[low - 1] <= mIndexes[low] - index ? low - 1
+                : low;
+    }
+
+    /**
+     * Set next index of cursor, pushing neighbours on the way so that every
+     * cursor stays on its own mark. See {@link #getPushedFirst()} and
+     * {@link #getPushedLast()} for cursors which need to move.
+     */
+    public void select(int cursor, int index) {
+        final int min = cursor;
+        final int max = mMarkCount - mCursorCount + cursor;
+        if (index < min || index > max) {
+            throw new IllegalArgumentException("Index of cursor " + cursor
+                    + " should from " + min + " to " + max + "!");
+        }
+
+        mNextIndexes[cursor] = index;
+        mPushedFirst = cursor;
+        mPushedLast = cursor;
+
+        for (int i = cursor + 1; i < mCursorCount; i++) {
+            if (mIndexes[i] > mNextIndexes[i - 1]) {
+                break;
+            }
+            mNextIndexes[i] = mNextIndexes[i - 1] + 1;
+            mPushedLast = i;
+        }
+        for (int i = cursor - 1; i >= 0; i--) {
+            if (mIndexes[i] < mNextIndexes[i + 1]) {
+                break;
+            }
+            mNextIndexes[i] = mNextIndexes[i + 1] - 1;
+            mPushedFirst = i;
+        }
+    }
+
+    /**
+     * The lowest cursor whose next index is changed by the last
+     * {@link #select(int, int)}.
+     */
+    public int getPushedFirst() {
+        return mPushedFirst;
+    }
+
+    /**
+     * The highest cursor whose next index is changed by the last
+     * {@link #select(int, int)}.
+     */
+    public int getPushedLast() {
+        return mPushedLast;
+    }
+}
@@ -18,24 +18,32 @@ package com.dolphin.seekbar;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Paint.Style;
+import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.DecelerateInterpolator;
-import android.widget.Scroller;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import com.dolphin.multitouchseekbar.R;
 
 /**
  * A seekbar contains two cursor(left and right). Multiple touch supported.
+ * More pairs of cursors can be added by {@link #setCursorCount(int)}, every
+ * pair selects one band.
  * 
  * @author dolphinWang
  * @time 2014/05/07
@@ -47,20 +55,38 @@ public class RangeSeekbar extends View {
 
     private static final int DEFAULT_DURATION = 100;
 
-    private enum DIRECTION {
-        LEFT, RIGHT;
-    }
+    /**
+     * Delay between two animation frames before Jelly Bean.
+     */
+    private static final int FRAME_DELAY = 16;
+
+    /**
+     * Count of labels cached in numeric mode.
+     */
+    private static final int LABEL_CACHE_CAPACITY = 128;
 
     private int mDuration;
 
     /**
-     * Scrollers for left and right cursor
+     * Clock of cursor animations, same time base as MotionEvent.
+     */
+    private static final CursorAnimator.Clock UPTIME_CLOCK = new CursorAnimator.Clock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+    };
+
+    /**
+     * Animations of every cursor, advanced by one frame callback.
      */
-    private Scroller mLeftScroller;
-    private Scroller mRightScroller;
+    private final CursorAnimator mAnimator = new CursorAnimator(0,
+            UPTIME_CLOCK);
 
     /**
      * Background drawables for left and right cursor. State list supported.
+     * With more than two cursors, the lower cursor of every band uses the
+     * left one and the higher uses the right one.
      */
     private Drawable mLeftCursorBG;
     private Drawable mRightCursorBG;
@@ -97,9 +123,16 @@ public class RangeSeekbar extends View {
     private int mMarginBetween;
 
     /**
-     * Length of every part. As we divide some parts according to marks.
+     * Geometry for current size and configuration, null before first size
+     * change. Only replaced by {@link #rebuildGeometry(int)}.
+     */
+    private SeekbarGeometry mGeometry;
+
+    /**
+     * Whether a requested layout should rebuild mGeometry, even if it ends
+     * with the same size and onSizeChanged is not called.
      */
-    private int mPartLength;
+    private boolean mGeometryDirty;
 
     /**
      * Contents of text mark.
@@ -107,38 +140,201 @@ public class RangeSeekbar extends View {
     private CharSequence[] mTextArray;
 
     /**
-     * 
+     * Numeric domain, used instead of mTextArray when not null.
+     */
+    private NumericRange mNumericRange;
+    private LabelProvider mLabelProvider;
+    private DecimalLabelProvider mDefaultLabelProvider;
+    private LabelCache mLabelCache;
+
+    /**
+     * Strings of text marks laid out by mMarkLayout, converted once so that
+     * drawing and callbacks never call toString(). In numeric mode there is
+     * only one label every mLabelStride steps. With text marks, both arrays
+     * are shared through {@link TextWidthCache}.
+     */
+    private String[] mTextStringArray;
+
+    /**
+     * Measured width of every text mark in mTextStringArray.
      */
     private float[] mTextWidthArray;
 
+    private int mLabelCount;
+    private int mLabelStride = 1;
+
+    /**
+     * Maps index of mark to location on seekbar. Sampled into mScaleTable on
+     * every layout, so touch and drawing never evaluate mScale directly.
+     */
+    private Scale mScale;
+    private ScaleTable mScaleTable = new ScaleTable();
+
+    /**
+     * Distribution drawn behind the seekbar, and path of its bars built for
+     * mHistogramSnapshot. The path is only rebuilt when a new snapshot is
+     * published or geometry changes.
+     */
+    private Histogram mHistogram;
+    private Histogram.Snapshot mHistogramSnapshot;
+    private Path mHistogramPath;
+    private boolean mHistogramPathDirty = true;
+    private int mHistogramColorNormal;
+    private int mHistogramColorSelected;
+
+    private final Histogram.OnPublishListener mHistogramListener = new Histogram.OnPublishListener() {
+        @Override
+        public void onPublished(Histogram histogram, Histogram.Snapshot snapshot) {
+            // May be called from any thread.
+            postInvalidate();
+        }
+    };
+
+    /**
+     * Pre-rendered text marks and seekbar in normal and selected colors.
+     * Only used if mStaticLayerEnabled.
+     */
+    private boolean mStaticLayerEnabled;
+    private boolean mStaticLayerDirty = true;
+    private Bitmap mNormalLayer;
+    private Bitmap mSelectedLayer;
+
+    /**
+     * Draw locations and click areas of text marks. Calculated in onMeasure.
+     */
+    private MarkLayout mMarkLayout = new MarkLayout();
+
+    /**
+     * What the last measure depended on, see
+     * {@link #requestLayoutIfNeeded()}.
+     */
+    private int mMeasuredHeightNeeded;
+    private int mMeasuredLeftCursorWidth;
+    private int mMeasuredRightCursorWidth;
+
+    /**
+     * Region changed since the last drawn frame, see
+     * {@link #invalidateCursors(int, int)}.
+     */
+    private Rect mDirtyRect;
+
+    /**
+     * Advances every cursor animation once per frame, whether or not the
+     * frame is drawn.
+     */
+    private final Runnable mAnimationTick = new Runnable() {
+        @Override
+        public void run() {
+            stepAnimations();
+        }
+    };
+
     private Rect mPaddingRect;
-    private Rect mLeftCursorRect;
-    private Rect mRightCursorRect;
 
+    /**
+     * Track of mGeometry as a RectF for drawing, only written with it.
+     */
     private RectF mSeekbarRect;
     private RectF mSeekbarRectSelected;
 
-    private float mLeftCursorIndex = 0;
-    private float mRightCursorIndex = 1.0f;
-    private int mLeftCursorNextIndex = 0;
-    private int mRightCursorNextIndex = 1;
+    /**
+     * Positions of cursors, snapping and collision rules.
+     */
+    private RangeModel mModel = new RangeModel();
+
+    /**
+     * Last drawn frame, pointer locations and dirty region, kept out of the
+     * view so they can be checked on a plain JVM.
+     */
+    private final SeekbarFrame mFrame = new SeekbarFrame(mModel, mScaleTable,
+            mMarkLayout);
 
     private Paint mPaint;
 
-    private int mLeftPointerLastX;
-    private int mRightPointerLastX;
-
-    private int mLeftPointerID = -1;
-    private int mRightPointerID = -1;
+    /**
+     * Id of the pointer touching every cursor, or -1. The x-axis location
+     * the cursor has followed so far is kept in mFrame.
+     */
+    private int[] mCursorPointerIdArray;
 
-    private boolean mLeftHited;
-    private boolean mRightHited;
+    /**
+     * How far touched cursors are drawn ahead of their pointers, in
+     * milliseconds, see {@link #setTouchPrediction(int)}. Predictor is null
+     * when disabled.
+     */
+    private int mPredictionWindow;
+    private TouchPredictor mPredictor;
 
-    private int mRightBoundary;
+    /**
+     * Cursor touched by every pointer id, or -1. Grows with the biggest id.
+     */
+    private int[] mPointerCursorMap = new int[0];
 
     private OnCursorChangeListener mListener;
+    private OnMultiCursorChangeListener mMultiListener;
+
+    /**
+     * Changes for mRangeListener are coalesced and dispatched once per frame
+     * by mRangeEventTick. mRangeUnsettled is set by every change and cleared
+     * when all cursors stop.
+     */
+    private OnRangeChangeListener mRangeListener;
+    private int[] mRangeLocationArray;
+    private boolean mRangeEventScheduled;
+    private boolean mRangeChangePending;
+    private boolean mRangeSettlePending;
+    private boolean mRangeUnsettled;
+
+    /**
+     * Count of items inside all bands, resolved by mCountIndex from
+     * fractional cursor positions. Reported to mCountListener once per frame
+     * and drawn above the end of seekbar if mRangeCountLabel is set.
+     */
+    private CountIndex mCountIndex;
+    private int mRangeCount = -1;
+    private boolean mRangeCountPending;
+    private OnRangeCountListener mCountListener;
+    private CountLabel mRangeCountLabel;
+    private float mRangeCountTextWidth;
+
+    /**
+     * Sorted column following the outer cursors, updated with the coalesced
+     * range events.
+     */
+    private ColumnSlice mColumnSlice;
+
+    /**
+     * Optional hook for measuring hot paths, see {@link #setMetrics}. Every
+     * measurement is skipped when it is null.
+     */
+    private SeekbarMetrics mMetrics;
+
+    /**
+     * Event time of the first move event which invalidated the seekbar and
+     * has not been drawn yet, or 0.
+     */
+    private long mPendingInputTime;
+    private long mInvalidateCount;
+
+    /**
+     * Debug drawing, see {@link #setDebugOverlayEnabled(boolean)}. Null when
+     * disabled, so it costs nothing but a null check.
+     */
+    private DebugOverlay mDebugOverlay;
+
+    /**
+     * Hands coalesced range changes to a worker executor, see
+     * {@link #setAsyncRangeCallback(Executor, AsyncRangeDispatcher.Callback)}.
+     */
+    private AsyncRangeDispatcher<?> mAsyncDispatcher;
+
+    private final Runnable mRangeEventTick = new Runnable() {
+        @Override
+        public void run() {
+            dispatchRangeEvents();
+        }
+    };
 
-    private Rect[] mClickRectArray;
     private int mClickIndex = -1;
     private int mClickDownLastX = -1;
     private int mClickDownLastY = -1;
@@ -164,22 +360,14 @@ public class RangeSeekbar extends View {
         mPaddingRect.right = getPaddingRight();
         mPaddingRect.bottom = getPaddingBottom();
         
-        mLeftCursorRect = new Rect();
-        mRightCursorRect = new Rect();
+        mDirtyRect = new Rect();
 
         mSeekbarRect = new RectF();
         mSeekbarRectSelected = new RectF();
 
-        if (mTextArray != null) {
-            mTextWidthArray = new float[mTextArray.length];
-            mClickRectArray = new Rect[mTextArray.length];
-        }
-
-        mLeftScroller = new Scroller(context, new DecelerateInterpolator());
-        mRightScroller = new Scroller(context, new DecelerateInterpolator());
-
+        initCursorArrays();
         initPaint();
-        initTextWidthArray();
+        initTextMarkArrays();
 
         setWillNotDraw(false);
         setFocusable(true);
@@ -215,22 +403,66 @@ public class RangeSeekbar extends View {
                 R.styleable.RangeSeekbar_seekbarColorSelected,
                 Color.rgb(242, 79, 115));
 
+        mHistogramColorNormal = a.getColor(
+                R.styleable.RangeSeekbar_histogramColorNormal,
+                Color.argb(64, 218, 215, 215));
+        mHistogramColorSelected = a.getColor(
+                R.styleable.RangeSeekbar_histogramColorSelected,
+                Color.argb(96, 242, 79, 115));
+
         mSeekbarHeight = (int) a.getDimension(
                 R.styleable.RangeSeekbar_seekbarHeight, 10);
         mTextSize = (int) a.getDimension(R.styleable.RangeSeekbar_textSize, 15);
         mMarginBetween = (int) a.getDimension(
                 R.styleable.RangeSeekbar_spaceBetween, 15);
 
+        mModel.setCursorCount(a.getInteger(
+                R.styleable.RangeSeekbar_cursorCount, 2));
+
+        if (a.getBoolean(R.styleable.RangeSeekbar_debugOverlay, false)) {
+            mDebugOverlay = new DebugOverlay(mTextSize * 0.8f);
+        }
+
         mTextArray = a.getTextArray(R.styleable.RangeSeekbar_markTextArray);
         if (mTextArray != null && mTextArray.length > 0) {
-            mLeftCursorIndex = 0;
-            mRightCursorIndex = mTextArray.length - 1;
-            mRightCursorNextIndex = (int) mRightCursorIndex;
+            checkCursorCount(mModel.getCursorCount(), mTextArray.length);
+            mModel.setMarkCount(mTextArray.length);
         }
 
         a.recycle();
     }
 
+    /**
+     * Run whenever count of cursors or marks changes. No mark means marks
+     * are not set yet.
+     */
+    private static void checkCursorCount(int cursorCount, int markCount) {
+        if (markCount > 0 && cursorCount > markCount) {
+            throw new IllegalArgumentException(
+                    "Count of cursors can not more than count of marks!");
+        }
+    }
+
+    /**
+     * Allocate every per-cursor array. Touches in progress are dropped.
+     */
+    private void initCursorArrays() {
+        final int count = mModel.getCursorCount();
+
+        mAnimator.setCursorCount(count);
+
+        mCursorPointerIdArray = new int[count];
+        Arrays.fill(mCursorPointerIdArray, -1);
+        if (mPredictor != null) {
+            mPredictor = new TouchPredictor(count);
+        }
+        Arrays.fill(mPointerCursorMap, -1);
+
+        mFrame.setCursorCount(count);
+
+        mRangeLocationArray = new int[count];
+    }
+
     private void initPaint() {
         mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
@@ -239,14 +471,121 @@ public class RangeSeekbar extends View {
         mPaint.setTextSize(mTextSize);
     }
 
-    private void initTextWidthArray() {
-        if (mTextArray != null && mTextArray.length > 0) {
-            final int length = mTextArray.length;
-            for (int i = 0; i < length; i++) {
-                mTextWidthArray[i] = mPaint.measureText(mTextArray[i]
-                        .toString());
-            }
+    /**
+     * Fetch strings and widths of text marks from {@link TextWidthCache},
+     * measuring them only if no seekbar has done it yet. Arrays are shared,
+     * never modify them. Never called in onDraw or touch handling.
+     */
+    private void initTextMarkArrays() {
+        if (mTextArray == null) {
+            return;
+        }
+
+        final TextWidthCache.Marks marks = TextWidthCache.getInstance()
+                .obtain(mTextArray, mPaint);
+        mTextStringArray = marks.texts();
+        mTextWidthArray = marks.widths();
+        mLabelCount = mTextArray.length;
+        mLabelStride = 1;
+    }
+
+    /**
+     * In numeric mode, choose one label every mLabelStride steps so that
+     * labels fit the seekbar, and fetch them from mLabelCache. Count of
+     * labels only depends on width of view.
+     */
+    private void initNumericLabels() {
+        final int maxIndex = mModel.getMaxIndex();
+        final float seekbarLength = mSeekbarRect.right - mSeekbarRect.left;
+        final float labelWidth = Math.max(
+                mLabelCache.widthAt(obtainLabelSlot(0)),
+                mLabelCache.widthAt(obtainLabelSlot(maxIndex)))
+                + mTextSize / 2;
+        final int maxLabels = Math.max(2, (int) (seekbarLength / labelWidth) + 1);
+
+        mLabelStride = (int) Math.max(1,
+                ((long) maxIndex + maxLabels - 2) / (maxLabels - 1));
+        int count = maxIndex / mLabelStride + 1;
+        if (maxIndex % mLabelStride != 0) {
+            count++;
+        }
+
+        if (mTextStringArray == null || mTextStringArray.length < count) {
+            mTextStringArray = new String[count];
+            mTextWidthArray = new float[count];
+        }
+        for (int i = 0; i < count; i++) {
+            final int slot = obtainLabelSlot(labelToIndex(i));
+            mTextStringArray[i] = mLabelCache.labelAt(slot);
+            mTextWidthArray[i] = mLabelCache.widthAt(slot);
+        }
+        mLabelCount = count;
+    }
+
+    /**
+     * Find label of a step in mLabelCache, create and measure it if missed.
+     */
+    private int obtainLabelSlot(int index) {
+        int slot = mLabelCache.indexOfKey(index);
+        if (slot < 0) {
+            final LabelProvider provider = mLabelProvider != null ? mLabelProvider
+                    : mDefaultLabelProvider;
+            final String label = provider.getLabel(index,
+                    mNumericRange.valueAt(index)).toString();
+            slot = mLabelCache.put(index, label, mPaint.measureText(label));
+        }
+        return slot;
+    }
+
+    /**
+     * Index of the step where a laid out label is located.
+     */
+    private int labelToIndex(int label) {
+        return (int) Math.min((long) label * mLabelStride,
+                mModel.getMaxIndex());
+    }
+
+    /**
+     * Text of the mark at index of step.
+     */
+    private String getLabel(int index) {
+        if (mNumericRange == null) {
+            return mTextStringArray[index];
+        }
+        return mLabelCache.labelAt(obtainLabelSlot(index));
+    }
+
+    /**
+     * Calculate draw locations and click areas of text marks. Should be
+     * called after mGeometry and mSeekbarRect have been updated.
+     */
+    private void layoutTextMarks() {
+        if (mModel.getMarkCount() == 0) {
+            return;
+        }
+
+        mStaticLayerDirty = true;
+        mHistogramPathDirty = true;
+
+        mScaleTable.build(mScale,
+                (int) (mSeekbarRect.right - mSeekbarRect.left) + 1);
+
+        if (mNumericRange != null) {
+            initNumericLabels();
+        }
+
+        // Locations are written straight into mMarkLayout.
+        final float[] labelX = mMarkLayout.obtainMarkXArray(mLabelCount);
+        for (int i = 0; i < mLabelCount; i++) {
+            labelX[i] = mFrame.indexToX(labelToIndex(i));
         }
+
+        final SeekbarGeometry geometry = mGeometry;
+        mMarkLayout.setMinTextSpacing(mTextSize / 2);
+        mMarkLayout.layout(mTextWidthArray, mLabelCount,
+                geometry.getLastTextRight(), geometry.getClickTop(),
+                geometry.getClickBottom());
+        mFrame.setLabels(mLabelStride, mLabelCount);
     }
 
     @Override
@@ -260,13 +599,15 @@ public class RangeSeekbar extends View {
         mPaddingRect.top = top;
         mPaddingRect.right = right;
         mPaddingRect.bottom = bottom;
+        if (mGeometry != null) {
+            rebuildGeometry(mGeometry.getWidth());
+        }
     }
 
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        final int heightSize = MeasureSpec.getSize(heightMeasureSpec);
-        final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
-            
+    /**
+     * Height of content plus padding, used by onMeasure.
+     */
+    private int computeHeightNeeded() {
         final int leftPointerH = mLeftCursorBG.getIntrinsicHeight();
         final int rightPointerH = mRightCursorBG.getIntrinsicHeight();
 
@@ -275,9 +616,20 @@ public class RangeSeekbar extends View {
         // Then get max height between seekbar and cursor.
         final int maxOfCursorAndSeekbar = Math.max(mSeekbarHeight, maxOfCursor);
         // So we get the needed height.
-        int heightNeeded = maxOfCursorAndSeekbar + mMarginBetween + mTextSize
+        return maxOfCursorAndSeekbar + mMarginBetween + mTextSize
                 + mPaddingRect.top + mPaddingRect.bottom;
-        
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+        final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+
+        final int heightNeeded = computeHeightNeeded();
+        mMeasuredHeightNeeded = heightNeeded;
+        mMeasuredLeftCursorWidth = mLeftCursorBG.getIntrinsicWidth();
+        mMeasuredRightCursorWidth = mRightCursorBG.getIntrinsicWidth();
+
         if (heightMode == MeasureSpec.EXACTLY) {
             heightMeasureSpec = MeasureSpec.makeMeasureSpec(heightSize, MeasureSpec.EXACTLY);
         } else if (heightMode == MeasureSpec.AT_MOST) {
@@ -288,153 +640,596 @@ public class RangeSeekbar extends View {
                     heightNeeded, MeasureSpec.EXACTLY);
         }
 
-        final int widthSize = MeasureSpec.getSize(widthMeasureSpec);
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        rebuildGeometry(w);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right,
+            int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
 
-        mSeekbarRect.left = mPaddingRect.left
-                + mLeftCursorBG.getIntrinsicWidth() / 2;
-        mSeekbarRect.right = widthSize - mPaddingRect.right
-                - mRightCursorBG.getIntrinsicWidth() / 2;
-        mSeekbarRect.top = mPaddingRect.top + mTextSize + mMarginBetween;
-        mSeekbarRect.bottom = mSeekbarRect.top + mSeekbarHeight;
+        if (mGeometryDirty) {
+            rebuildGeometry(right - left);
+        }
+    }
 
+    /**
+     * Build geometry for width from current configuration, and lay out text
+     * marks for it. Only called on size change or a real configuration
+     * change, never while measuring, drawing or touching.
+     */
+    private void rebuildGeometry(int width) {
+        final SeekbarGeometry geometry = new SeekbarGeometry(width,
+                mPaddingRect.left, mPaddingRect.top, mPaddingRect.right,
+                mTextSize, mMarginBetween, mSeekbarHeight,
+                mLeftCursorBG.getIntrinsicWidth(),
+                mLeftCursorBG.getIntrinsicHeight(),
+                mRightCursorBG.getIntrinsicWidth(),
+                mRightCursorBG.getIntrinsicHeight());
+        mGeometry = geometry;
+        mGeometryDirty = false;
+
+        mSeekbarRect.set(geometry.getTrackLeft(), geometry.getTrackTop(),
+                geometry.getTrackRight(), geometry.getTrackBottom());
         mSeekbarRectSelected.top = mSeekbarRect.top;
         mSeekbarRectSelected.bottom = mSeekbarRect.bottom;
 
-        mPartLength = ((int) (mSeekbarRect.right - mSeekbarRect.left))
-                / (mTextArray.length - 1);
-
-        mRightBoundary = (int) (mSeekbarRect.right + mRightCursorBG
-                .getIntrinsicWidth() / 2);
+        mFrame.setGeometry(geometry);
+        mFrame.setMarkMargin(mTextSize / 4 + 1);
+        updateHistogramTop();
+        layoutTextMarks();
+    }
 
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    /**
+     * Request layout only if a change makes measured height or intrinsic
+     * widths of cursors different from the last measure. Otherwise
+     * geometry is updated for the current width, a redraw is enough.
+     */
+    private void requestLayoutIfNeeded() {
+        if (mGeometry == null
+                || computeHeightNeeded() != mMeasuredHeightNeeded
+                || mLeftCursorBG.getIntrinsicWidth() != mMeasuredLeftCursorWidth
+                || mRightCursorBG.getIntrinsicWidth() != mMeasuredRightCursorWidth) {
+            // Rebuilt once by onSizeChanged or onLayout.
+            mGeometryDirty = true;
+            requestLayout();
+        } else {
+            rebuildGeometry(mGeometry.getWidth());
+        }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        if (mGeometry == null) {
+            return;
+        }
 
-        /*** Draw text marks ***/
-        final int length = mTextArray.length;
-        mPaint.setTextSize(mTextSize);
-        for (int i = 0; i < length; i++) {
-            if ((i > mLeftCursorIndex && i < mRightCursorIndex)
-                    || (i == mLeftCursorIndex || i == mRightCursorIndex)) {
-                mPaint.setColor(mTextColorSelected);
-            } else {
-                mPaint.setColor(mTextColorNormal);
-            }
+        final SeekbarMetrics metrics = mMetrics;
+        final DebugOverlay overlay = mDebugOverlay;
+        final long start = metrics != null || overlay != null ? System
+                .nanoTime() : 0;
+
+        // Marks in [ceil(lower), floor(higher)] of every band use selected
+        // color.
+        mFrame.beginFrame();
 
-            final String text2draw = mTextArray[i].toString();
-            final float textWidth = mTextWidthArray[i];
+        drawHistogram(canvas);
 
-            float textDrawLeft = 0;
-            // The last text mark's draw location should be adjust.
-            if (i == length - 1) {
-                textDrawLeft = mSeekbarRect.right
-                        + (mRightCursorBG.getIntrinsicWidth() / 2) - textWidth;
-            } else {
-                textDrawLeft = mSeekbarRect.left + i * mPartLength - textWidth
-                        / 2;
+        if (mStaticLayerEnabled) {
+            if (mStaticLayerDirty) {
+                buildStaticLayer();
             }
+            drawStaticLayer(canvas);
+        } else {
+            drawTextMarks(canvas);
+            drawSeekbar(canvas);
+        }
 
-            canvas.drawText(text2draw, textDrawLeft, mPaddingRect.top
-                    + mTextSize, mPaint);
+        drawRangeCount(canvas);
+        drawCursors(canvas);
 
-            Rect rect = mClickRectArray[i];
-            if (rect == null) {
-                rect = new Rect();
-                rect.top = mPaddingRect.top;
-                rect.bottom = rect.top + mTextSize + mMarginBetween
-                        + mSeekbarHeight;
-                rect.left = (int) textDrawLeft;
-                rect.right = (int) (rect.left + textWidth);
+        if (overlay != null) {
+            // Frame time of overlay itself is not counted.
+            overlay.recordFrame(System.nanoTime() - start,
+                    SystemClock.uptimeMillis());
+            drawDebugOverlay(canvas, overlay);
+        }
 
-                mClickRectArray[i] = rect;
+        if (metrics != null) {
+            metrics.recordDrawTime(System.nanoTime() - start);
+            if (mPendingInputTime != 0) {
+                metrics.recordTouchToDrawLatency(SystemClock.uptimeMillis()
+                        - mPendingInputTime);
+                mPendingInputTime = 0;
             }
         }
+    }
 
-        /*** Draw seekbar ***/
-        final float radius = (float) mSeekbarHeight / 2;
-        mSeekbarRectSelected.left = mSeekbarRect.left + mPartLength
-                * mLeftCursorIndex;
-        mSeekbarRectSelected.right = mSeekbarRect.left + mPartLength
-                * mRightCursorIndex;
-        // If whole of seekbar is selected, just draw seekbar with selected
-        // color.
-        if (mLeftCursorIndex == 0 && mRightCursorIndex == length - 1) {
-            mPaint.setColor(mSeekbarColorSelected);
-            canvas.drawRoundRect(mSeekbarRect, radius, radius, mPaint);
-        } else {
-            // Draw background first.
-            mPaint.setColor(mSeekbarColorNormal);
-            canvas.drawRoundRect(mSeekbarRect, radius, radius, mPaint);
+    /**
+     * Top of histogram bars, they grow from bottom of seekbar up to text
+     * marks. A bigger space between makes them higher.
+     */
+    private float histogramTop() {
+        return mSeekbarRect.top - mMarginBetween;
+    }
 
-            // Draw selected part.
-            mPaint.setColor(mSeekbarColorSelected);
-            // Can draw rounded rectangle, but original rectangle is enough.
-            // Because edges of selected part will be covered by cursors.
-            canvas.drawRect(mSeekbarRectSelected, mPaint);
-        }
-
-        /*** Draw cursors ***/
-        // left cursor first
-        final int leftWidth = mLeftCursorBG.getIntrinsicWidth();
-        final int leftHieght = mLeftCursorBG.getIntrinsicHeight();
-        final int leftLeft = (int) (mSeekbarRectSelected.left - (float) leftWidth / 2);
-        final int leftTop = (int) ((mSeekbarRect.top + mSeekbarHeight / 2) - (leftHieght / 2));
-        mLeftCursorRect.left = leftLeft;
-        mLeftCursorRect.top = leftTop;
-        mLeftCursorRect.right = leftLeft + leftWidth;
-        mLeftCursorRect.bottom = leftTop + leftHieght;
-        mLeftCursorBG.setBounds(mLeftCursorRect);
-        mLeftCursorBG.draw(canvas);
-
-        // right cursor second
-        final int rightWidth = mRightCursorBG.getIntrinsicWidth();
-        final int rightHeight = mRightCursorBG.getIntrinsicHeight();
-        final int rightLeft = (int) (mSeekbarRectSelected.right - (float) rightWidth / 2);
-        final int rightTop = (int) ((mSeekbarRectSelected.top + mSeekbarHeight / 2) - (rightHeight / 2));
-        mRightCursorRect.left = rightLeft;
-        mRightCursorRect.top = rightTop;
-        mRightCursorRect.right = rightLeft + rightWidth;
-        mRightCursorRect.bottom = rightTop + rightHeight;
-        mRightCursorBG.setBounds(mRightCursorRect);
-        mRightCursorBG.draw(canvas);
+    /**
+     * Highlighted bars change along with the seekbar, so they are
+     * invalidated with cursors.
+     */
+    private void updateHistogramTop() {
+        mFrame.setHistogramTop(mHistogram != null && mGeometry != null
+                ? histogramTop() : Float.NaN);
     }
 
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        if (getParent() != null) {
-            getParent().requestDisallowInterceptTouchEvent(true);
+    /**
+     * X-axis location of a value of histogram: a value of step in numeric
+     * mode, or an index of mark in text mode.
+     */
+    private float valueToX(double value) {
+        if (mNumericRange != null) {
+            return mFrame.indexToX(mNumericRange.fractionOf(value));
         }
+        return mFrame.indexToX((float) Math.max(0,
+                Math.min(value, mModel.getMaxIndex())));
+    }
 
-        // For multiple touch
-        final int action = event.getActionMasked();
-        switch (action) {
-        case MotionEvent.ACTION_DOWN:
-
-            handleTouchDown(event);
+    /**
+     * Count items inside bands at current cursor positions.
+     * 
+     * @return whether count changed.
+     */
+    private boolean updateRangeCount() {
+        if (mCountIndex == null) {
+            return false;
+        }
 
-            break;
-        case MotionEvent.ACTION_POINTER_DOWN:
+        int count = 0;
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i += 2) {
+            count += mCountIndex.count(mModel.getIndex(i),
+                    mModel.getIndex(i + 1));
+        }
+        if (count == mRangeCount) {
+            return false;
+        }
 
-            handleTouchDown(event);
+        mRangeCount = count;
+        if (mRangeCountLabel != null) {
+            mRangeCountLabel.setCount(count);
+            measureRangeCount();
+        }
+        if (mCountListener != null) {
+            mRangeCountPending = true;
+            scheduleRangeEvent();
+        }
+        return true;
+    }
 
-            break;
-        case MotionEvent.ACTION_MOVE:
+    /**
+     * Right aligned to the end of seekbar, just above it.
+     */
+    private void drawRangeCount(Canvas canvas) {
+        final CountLabel label = mRangeCountLabel;
+        if (mCountIndex == null || label == null || mRangeCount < 0) {
+            return;
+        }
 
-            handleTouchMove(event);
+        mPaint.setColor(mTextColorSelected);
+        canvas.drawText(label.getChars(), 0, label.length(),
+                mSeekbarRect.right - mRangeCountTextWidth,
+                mSeekbarRect.top - 2, mPaint);
+    }
 
-            break;
-        case MotionEvent.ACTION_POINTER_UP:
+    private void measureRangeCount() {
+        final CountLabel label = mRangeCountLabel;
+        mRangeCountTextWidth = label != null ? mPaint.measureText(
+                label.getChars(), 0, label.length()) : 0;
+    }
 
-            handleTouchUp(event);
+    /**
+     * Every bucket is one rectangle of a single path, so bars are drawn in
+     * one call per span of color.
+     */
+    private void buildHistogramPath(Histogram.Snapshot snapshot) {
+        if (mHistogramPath == null) {
+            mHistogramPath = new Path();
+        } else {
+            mHistogramPath.rewind();
+        }
+        mHistogramSnapshot = snapshot;
+        mHistogramPathDirty = false;
 
-            break;
-        case MotionEvent.ACTION_CANCEL:
-        case MotionEvent.ACTION_UP:
+        final long maxCount = snapshot.getMaxCount();
+        if (maxCount == 0) {
+            return;
+        }
 
-            handleTouchUp(event);
+        final float bottom = mSeekbarRect.bottom;
+        final float height = bottom - histogramTop();
+        final int bucketCount = snapshot.getBucketCount();
+        float left = valueToX(snapshot.getBucketStart(0));
+        for (int i = 0; i < bucketCount; i++) {
+            final float right = valueToX(snapshot.getBucketStart(i + 1));
+            final long count = snapshot.getCount(i);
+            if (count > 0) {
+                mHistogramPath.addRect(left, bottom - height * count
+                        / maxCount, right, bottom, Path.Direction.CW);
+            }
+            left = right;
+        }
+    }
+
+    /**
+     * Draw bars in normal color between bands and in selected color inside
+     * them.
+     */
+    private void drawHistogram(Canvas canvas) {
+        if (mHistogram == null) {
+            return;
+        }
+
+        final Histogram.Snapshot snapshot = mHistogram.getSnapshot();
+        if (snapshot != mHistogramSnapshot || mHistogramPathDirty) {
+            buildHistogramPath(snapshot);
+        }
+        if (snapshot.getMaxCount() == 0) {
+            return;
+        }
+
+        if (mModel.isFullSelected()) {
+            drawHistogramSpan(canvas, 0, getWidth(), mHistogramColorSelected);
+            return;
+        }
+
+        float normalLeft = 0;
+        final SeekbarFrame frame = mFrame;
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i += 2) {
+            final float bandLeft = frame.getDrawnX(i);
+            final float bandRight = frame.getDrawnX(i + 1);
+            drawHistogramSpan(canvas, normalLeft, bandLeft,
+                    mHistogramColorNormal);
+            drawHistogramSpan(canvas, bandLeft, bandRight,
+                    mHistogramColorSelected);
+            normalLeft = bandRight;
+        }
+        drawHistogramSpan(canvas, normalLeft, getWidth(),
+                mHistogramColorNormal);
+    }
+
+    private void drawHistogramSpan(Canvas canvas, float left, float right,
+            int color) {
+        if (left >= right) {
+            return;
+        }
+
+        final int saveCount = canvas.save();
+        canvas.clipRect(left, histogramTop(), right, mSeekbarRect.bottom);
+        mPaint.setColor(color);
+        canvas.drawPath(mHistogramPath, mPaint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Only marks picked by mMarkLayout are drawn, so cost of this method is
+     * bounded by width of view. Color of paint changes at most twice per
+     * band.
+     */
+    private void drawTextMarks(Canvas canvas) {
+        final int visibleCount = mMarkLayout.getVisibleCount();
+        final float textBaseline = mPaddingRect.top + mTextSize;
+        final SeekbarFrame frame = mFrame;
+        final int cursorCount = mModel.getCursorCount();
+
+        // Lower cursor of the first band not ended before current mark.
+        int band = 0;
+        boolean selected = false;
+        mPaint.setColor(mTextColorNormal);
+        for (int n = 0; n < visibleCount; n++) {
+            final int i = mMarkLayout.getVisibleIndex(n);
+            final int index = labelToIndex(i);
+            while (band < cursorCount
+                    && index > frame.getDrawnThreshold(band + 1)) {
+                band += 2;
+            }
+
+            final boolean inBand = band < cursorCount
+                    && index >= frame.getDrawnThreshold(band);
+            if (inBand != selected) {
+                selected = inBand;
+                mPaint.setColor(selected ? mTextColorSelected
+                        : mTextColorNormal);
+            }
+
+            canvas.drawText(mTextStringArray[i], mMarkLayout.getTextDrawLeft(i),
+                    textBaseline, mPaint);
+        }
+    }
+
+    /**
+     * Draw every visible text mark in one color.
+     */
+    private void drawTextMarks(Canvas canvas, int color) {
+        final int visibleCount = mMarkLayout.getVisibleCount();
+        final float textBaseline = mPaddingRect.top + mTextSize;
+        mPaint.setColor(color);
+        for (int n = 0; n < visibleCount; n++) {
+            final int i = mMarkLayout.getVisibleIndex(n);
+            canvas.drawText(mTextStringArray[i], mMarkLayout.getTextDrawLeft(i),
+                    textBaseline, mPaint);
+        }
+    }
+
+    private void drawSeekbar(Canvas canvas) {
+        final float radius = (float) mSeekbarHeight / 2;
+        // If whole of seekbar is selected, just draw seekbar with selected
+        // color.
+        if (mModel.isFullSelected()) {
+            mPaint.setColor(mSeekbarColorSelected);
+            canvas.drawRoundRect(mSeekbarRect, radius, radius, mPaint);
+        } else {
+            // Draw background first.
+            mPaint.setColor(mSeekbarColorNormal);
+            canvas.drawRoundRect(mSeekbarRect, radius, radius, mPaint);
+
+            // Draw selected part of every band.
+            mPaint.setColor(mSeekbarColorSelected);
+            // Can draw rounded rectangle, but original rectangle is enough.
+            // Because edges of selected part will be covered by cursors.
+            final SeekbarFrame frame = mFrame;
+            final int cursorCount = mModel.getCursorCount();
+            for (int i = 0; i < cursorCount; i += 2) {
+                mSeekbarRectSelected.left = frame.getDrawnX(i);
+                mSeekbarRectSelected.right = frame.getDrawnX(i + 1);
+                canvas.drawRect(mSeekbarRectSelected, mPaint);
+            }
+        }
+    }
+
+    /**
+     * Render text marks and seekbar into two bitmaps, one totally in normal
+     * colors and one totally in selected colors. They are only rebuilt when
+     * size, marks or colors change.
+     */
+    private void buildStaticLayer() {
+        final int width = getWidth();
+        final int height = (int) Math.ceil(mSeekbarRect.bottom);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        if (mNormalLayer == null || mNormalLayer.getWidth() != width
+                || mNormalLayer.getHeight() != height) {
+            releaseStaticLayer();
+            mNormalLayer = Bitmap.createBitmap(width, height,
+                    Bitmap.Config.ARGB_8888);
+            mSelectedLayer = Bitmap.createBitmap(width, height,
+                    Bitmap.Config.ARGB_8888);
+        } else {
+            mNormalLayer.eraseColor(Color.TRANSPARENT);
+            mSelectedLayer.eraseColor(Color.TRANSPARENT);
+        }
+
+        final float radius = (float) mSeekbarHeight / 2;
+
+        final Canvas normal = new Canvas(mNormalLayer);
+        drawTextMarks(normal, mTextColorNormal);
+        mPaint.setColor(mSeekbarColorNormal);
+        normal.drawRoundRect(mSeekbarRect, radius, radius, mPaint);
+
+        final Canvas selected = new Canvas(mSelectedLayer);
+        drawTextMarks(selected, mTextColorSelected);
+        mPaint.setColor(mSeekbarColorSelected);
+        selected.drawRoundRect(mSeekbarRect, radius, radius, mPaint);
+
+        mStaticLayerDirty = false;
+    }
+
+    private void releaseStaticLayer() {
+        if (mNormalLayer != null) {
+            mNormalLayer.recycle();
+            mNormalLayer = null;
+        }
+        if (mSelectedLayer != null) {
+            mSelectedLayer.recycle();
+            mSelectedLayer = null;
+        }
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * Draw normal layer, then selected layer clipped to every band.
+     */
+    private void drawStaticLayer(Canvas canvas) {
+        if (mNormalLayer == null) {
+            return;
+        }
+
+        canvas.drawBitmap(mNormalLayer, 0, 0, null);
+
+        if (mModel.isFullSelected()) {
+            final int saveCount = canvas.save();
+            canvas.clipRect(0, mSeekbarRect.top, getWidth(),
+                    mSeekbarRect.bottom);
+            canvas.drawBitmap(mSelectedLayer, 0, 0, null);
+            canvas.restoreToCount(saveCount);
+        }
+
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i += 2) {
+            drawStaticBand(canvas, i);
+        }
+    }
+
+    /**
+     * Draw selected layer clipped to selected text marks and selected part of
+     * seekbar of the band starting at cursor.
+     */
+    private void drawStaticBand(Canvas canvas, int cursor) {
+        // Text marks: clip between the first and last selected visible marks,
+        // split at middle of the gap to their unselected neighbours.
+        final MarkLayout layout = mMarkLayout;
+        final int visibleCount = layout.getVisibleCount();
+        final SeekbarFrame frame = mFrame;
+        final int first = layout.lowerBoundVisible(frame.labelCeil(frame
+                .getDrawnThreshold(cursor)));
+        final int last = layout.lowerBoundVisible(frame.labelFloor(frame
+                .getDrawnThreshold(cursor + 1)) + 1) - 1;
+        if (first <= last) {
+            final int firstLabel = layout.getVisibleIndex(first);
+            final int lastLabel = layout.getVisibleIndex(last);
+            final float clipLeft = first == 0 ? 0 : (layout
+                    .getClickRight(layout.getVisibleIndex(first - 1)) + layout
+                    .getClickLeft(firstLabel)) / 2f;
+            final float clipRight = last == visibleCount - 1 ? getWidth()
+                    : (layout.getClickRight(lastLabel) + layout
+                            .getClickLeft(layout.getVisibleIndex(last + 1))) / 2f;
+
+            final int saveCount = canvas.save();
+            canvas.clipRect(clipLeft, 0, clipRight, mSeekbarRect.top);
+            canvas.drawBitmap(mSelectedLayer, 0, 0, null);
+            canvas.restoreToCount(saveCount);
+        }
+
+        if (mModel.isFullSelected()) {
+            return;
+        }
+
+        // Seekbar: clip to selected part.
+        final int saveCount = canvas.save();
+        canvas.clipRect(frame.getDrawnX(cursor), mSeekbarRect.top,
+                frame.getDrawnX(cursor + 1), mSeekbarRect.bottom);
+        canvas.drawBitmap(mSelectedLayer, 0, 0, null);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Background drawable of cursor.
+     */
+    private Drawable cursorBackground(int cursor) {
+        return (cursor & 1) == 0 ? mLeftCursorBG : mRightCursorBG;
+    }
+
+    private void drawCursors(Canvas canvas) {
+        // From left to right, so the higher one is on top when overlapped.
+        final SeekbarGeometry geometry = mGeometry;
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i++) {
+            final Drawable cursor = cursorBackground(i);
+            final int width = geometry.getCursorWidth(i);
+            final int height = geometry.getCursorHeight(i);
+            final int left = mFrame.getDrawnCursorLeft(i);
+            final int top = geometry.getCursorTop(i);
+
+            // Background drawables are shared by cursors, so state is set
+            // right before drawing.
+            cursor.setState(mCursorPointerIdArray[i] != -1 ? mPressedEnableState
+                    : mUnPresseEanabledState);
+            cursor.setBounds(left, top, left + width, top + height);
+            cursor.draw(canvas);
+        }
+    }
+
+    /**
+     * Same rule as {@link Rect#contains(int, int)} on bounds of cursor as
+     * last drawn.
+     */
+    private boolean cursorContains(int cursor, int x, int y) {
+        final SeekbarGeometry geometry = mGeometry;
+        if (geometry == null) {
+            return false;
+        }
+        final int left = mFrame.getDrawnCursorLeft(cursor);
+        final int top = geometry.getCursorTop(cursor);
+        return x >= left && x < left + geometry.getCursorWidth(cursor)
+                && y >= top && y < top + geometry.getCursorHeight(cursor);
+    }
+
+    private void invalidateCursor(int cursor) {
+        final SeekbarGeometry geometry = mGeometry;
+        if (geometry == null) {
+            return;
+        }
+        final int left = mFrame.getDrawnCursorLeft(cursor);
+        final int top = geometry.getCursorTop(cursor);
+        final int right = left + geometry.getCursorWidth(cursor);
+        final int bottom = top + geometry.getCursorHeight(cursor);
+        recordInvalidate(left, top, right, bottom);
+        invalidate(left, top, right, bottom);
+    }
+
+    /**
+     * Cursor touched by pointer, or -1.
+     */
+    private int cursorOfPointer(int pointerId) {
+        return pointerId >= 0 && pointerId < mPointerCursorMap.length ? mPointerCursorMap[pointerId]
+                : -1;
+    }
+
+    private void mapPointer(int pointerId, int cursor) {
+        if (pointerId >= mPointerCursorMap.length) {
+            final int length = mPointerCursorMap.length;
+            mPointerCursorMap = Arrays.copyOf(mPointerCursorMap,
+                    Math.max(pointerId + 1, length * 2));
+            Arrays.fill(mPointerCursorMap, length, mPointerCursorMap.length, -1);
+        }
+        mPointerCursorMap[pointerId] = cursor;
+    }
+
+    /**
+     * Whether cursor can not be pushed because it is touched or animated.
+     * Cursors out of range are never pinned.
+     */
+    private boolean isCursorPinned(int cursor) {
+        if (cursor < 0 || cursor >= mModel.getCursorCount()) {
+            return false;
+        }
+        return mCursorPointerIdArray[cursor] != -1
+                || mAnimator.isRunning(cursor);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+
+        // For multiple touch
+        final int action = event.getActionMasked();
+        switch (action) {
+        case MotionEvent.ACTION_DOWN:
+
+            handleTouchDown(event);
+
+            break;
+        case MotionEvent.ACTION_POINTER_DOWN:
+
+            handleTouchDown(event);
+
+            break;
+        case MotionEvent.ACTION_MOVE:
+
+            handleTouchMove(event);
+
+            break;
+        case MotionEvent.ACTION_POINTER_UP:
+
+            handleTouchUp(event);
+
+            break;
+        case MotionEvent.ACTION_CANCEL:
+        case MotionEvent.ACTION_UP:
+
+            handleTouchUp(event);
             mClickIndex = -1;
             mClickDownLastX = -1;
             mClickDownLastY = -1;
@@ -450,61 +1245,49 @@ public class RangeSeekbar extends View {
         final int downX = (int) event.getX(actionIndex);
         final int downY = (int) event.getY(actionIndex);
 
-        if (mLeftCursorRect.contains(downX, downY)) {
-            if (mLeftHited) {
-                return;
+        // The first cursor under pointer which is not touched yet.
+        boolean contained = false;
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i++) {
+            if (!cursorContains(i, downX, downY)) {
+                continue;
             }
 
-            // If hit, change state of drawable, and record id of touch pointer.
-            mLeftPointerLastX = downX;
-            mLeftCursorBG.setState(mPressedEnableState);
-            mLeftPointerID = event.getPointerId(actionIndex);
-            mLeftHited = true;
+            contained = true;
+            if (mCursorPointerIdArray[i] != -1) {
+                continue;
+            }
 
-            invalidate();
-        } else if (mRightCursorRect.contains(downX, downY)) {
-            if (mRightHited) {
-                return;
+            // If hit, record id of touch pointer. State of drawable changes
+            // on next draw. The finger takes over a running animation.
+            mAnimator.cancel(i);
+            final int pointerId = event.getPointerId(actionIndex);
+            final float x = event.getX(actionIndex);
+            mFrame.setPointerX(i, x);
+            if (mPredictor != null) {
+                mPredictor.reset(i);
+                mPredictor.addSample(i, x, event.getEventTime());
             }
+            mCursorPointerIdArray[i] = pointerId;
+            mapPointer(pointerId, i);
 
-            mRightPointerLastX = downX;
-            mRightCursorBG.setState(mPressedEnableState);
-            mRightPointerID = event.getPointerId(actionIndex);
-            mRightHited = true;
+            invalidateCursor(i);
+            return;
+        }
 
-            invalidate();
-        } else {
+        if (!contained) {
             // If touch x-y not be contained in cursor,
             // then we check if it in click areas
-            final int clickBoundaryTop = mClickRectArray[0].top;
-            final int clickBoundaryBottom = mClickRectArray[0].bottom;
             mClickDownLastX = downX;
             mClickDownLastY = downY;
+            mClickIndex = mMarkLayout.findClickIndex(downX, downY);
 
-            // Step one : if in boundary of total Y.
-            if (downY < clickBoundaryTop || downY > clickBoundaryBottom) {
-                mClickIndex = -1;
-                return;
-            }
-
-            // Step two: find nearest mark in x-axis
-            final int partIndex = (int) ((downX - mSeekbarRect.left) / mPartLength);
-            final int partDelta = (int) ((downX - mSeekbarRect.left) % mPartLength);
-            if (partDelta < mPartLength / 2) {
-                mClickIndex = partIndex;
-            } else if (partDelta > mPartLength / 2) {
-                mClickIndex = partIndex + 1;
-            }
-
-            if (mClickIndex == mLeftCursorIndex
-                    || mClickIndex == mRightCursorIndex) {
-                mClickIndex = -1;
-                return;
-            }
-
-            // Step three: check contain
-            if (!mClickRectArray[mClickIndex].contains(downX, downY)) {
-                mClickIndex = -1;
+            if (mClickIndex != -1) {
+                final int clickIndex = labelToIndex(mClickIndex);
+                if (clickIndex == mModel.getIndex(mModel
+                        .findNearestCursor(clickIndex))) {
+                    mClickIndex = -1;
+                }
             }
         }
     }
@@ -512,381 +1295,438 @@ public class RangeSeekbar extends View {
     private void handleTouchUp(MotionEvent event) {
         final int actionIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
         final int actionID = event.getPointerId(actionIndex);
+        final int cursor = cursorOfPointer(actionID);
 
-        if (actionID == mLeftPointerID) {
-            if (!mLeftHited) {
-                return;
+        if (cursor != -1) {
+            // Take back the predicted part of drawing before snapping.
+            if (mFrame.setPrediction(cursor, 0)) {
+                invalidateCursors(cursor, cursor);
             }
 
             // If cursor between in tow mark locations, it should be located on
             // the lower or higher one.
-
-            // step 1:Calculate the offset with lower mark.
-            final int lower = (int) Math.floor(mLeftCursorIndex);
-            final int higher = (int) Math.ceil(mLeftCursorIndex);
-
-            final float offset = mLeftCursorIndex - lower;
-            if (offset != 0) {
-
-                // step 2:Decide which mark will go to.
-                if (offset < 0.5f) {
-                    // If left cursor want to be located on lower mark, go ahead
-                    // guys.
-                    // Because right cursor will never appear lower than the
-                    // left one.
-                    mLeftCursorNextIndex = lower;
-                } else if (offset > 0.5f) {
-                    mLeftCursorNextIndex = higher;
-                    // If left cursor want to be located on higher mark,
-                    // situation becomes a little complicated.
-                    // We should check that whether distance between left and
-                    // right cursor is less than 1, and next index of left
-                    // cursor is difference with current
-                    // of right one.
-                    if (Math.abs(mLeftCursorIndex - mRightCursorIndex) <= 1
-                            && mLeftCursorNextIndex == mRightCursorNextIndex) {
-                        // Left can not go to the higher, just to the lower one.
-                        mLeftCursorNextIndex = lower;
-                    }
-                }
-
-                // step 3: Move to.
-                if (!mLeftScroller.computeScrollOffset()) {
-                    final int fromX = (int) (mLeftCursorIndex * mPartLength);
-
-                    mLeftScroller.startScroll(fromX, 0, mLeftCursorNextIndex
-                            * mPartLength - fromX, 0, mDuration);
-
-                    triggleCallback(true, mLeftCursorNextIndex);
-                }
+            if (mModel.snap(cursor)) {
+                startAnimation(cursor);
+                triggleCallback(cursor, mModel.getNextIndex(cursor));
             }
 
             // Reset values of parameters
-            mLeftPointerLastX = 0;
-            mLeftCursorBG.setState(mUnPresseEanabledState);
-            mLeftPointerID = -1;
-            mLeftHited = false;
-
-            invalidate();
-        } else if (actionID == mRightPointerID) {
-            if (!mRightHited) {
-                return;
-            }
-
-            final int lower = (int) Math.floor(mRightCursorIndex);
-            final int higher = (int) Math.ceil(mRightCursorIndex);
-
-            final float offset = mRightCursorIndex - lower;
-            if (offset != 0) {
-
-                if (offset > 0.5f) {
-                    mRightCursorNextIndex = higher;
-                } else if (offset < 0.5f) {
-                    mRightCursorNextIndex = lower;
-                    if (Math.abs(mLeftCursorIndex - mRightCursorIndex) <= 1
-                            && mRightCursorNextIndex == mLeftCursorNextIndex) {
-                        mRightCursorNextIndex = higher;
-                    }
-                }
-
-                if (!mRightScroller.computeScrollOffset()) {
-                    final int fromX = (int) (mRightCursorIndex * mPartLength);
-
-                    mRightScroller.startScroll(fromX, 0, mRightCursorNextIndex
-                            * mPartLength - fromX, 0, mDuration);
-
-                    triggleCallback(false, mRightCursorNextIndex);
-                }
-            }
-
-            mRightPointerLastX = 0;
-            mLeftCursorBG.setState(mUnPresseEanabledState);
-            mRightPointerID = -1;
-            mRightHited = false;
+            mCursorPointerIdArray[cursor] = -1;
+            mPointerCursorMap[actionID] = -1;
 
-            invalidate();
+            invalidateCursor(cursor);
+            checkRangeSettled();
         } else {
             final int pointerIndex = event.findPointerIndex(actionID);
             final int upX = (int) event.getX(pointerIndex);
             final int upY = (int) event.getY(pointerIndex);
 
             if (mClickIndex != -1
-                    && mClickRectArray[mClickIndex].contains(upX, upY)) {
+                    && mMarkLayout.contains(mClickIndex, upX, upY)) {
                 // Find nearest cursor
-                final float distance2LeftCursor = Math.abs(mLeftCursorIndex
-                        - mClickIndex);
-                final float distance2Right = Math.abs(mRightCursorIndex
-                        - mClickIndex);
-
-                final boolean moveLeft = distance2LeftCursor <= distance2Right;
-                int fromX = 0;
-                if (moveLeft) {
-                    if (!mLeftScroller.computeScrollOffset()) {
-                        mLeftCursorNextIndex = mClickIndex;
-                        fromX = (int) (mLeftCursorIndex * mPartLength);
-                        mLeftScroller.startScroll(fromX, 0,
-                                mLeftCursorNextIndex * mPartLength - fromX, 0,
-                                mDuration);
-
-                        triggleCallback(true, mLeftCursorNextIndex);
-
-                        invalidate();
-                    }
-                } else {
-                    if (!mRightScroller.computeScrollOffset()) {
-                        mRightCursorNextIndex = mClickIndex;
-                        fromX = (int) (mRightCursorIndex * mPartLength);
-                        mRightScroller.startScroll(fromX, 0,
-                                mRightCursorNextIndex * mPartLength - fromX, 0,
-                                mDuration);
-
-                        triggleCallback(false, mRightCursorNextIndex);
-
-                        invalidate();
-                    }
-                }
+                final int clickIndex = labelToIndex(mClickIndex);
+                final int nearest = mModel.findNearestCursor(clickIndex);
+                mModel.setNextIndex(nearest, clickIndex);
+                startAnimation(nearest);
+                triggleCallback(nearest, clickIndex);
             }
         }
     }
 
     private void handleTouchMove(MotionEvent event) {
+        if (mDebugOverlay != null) {
+            mDebugOverlay.recordTouchMove(SystemClock.uptimeMillis());
+        }
+        final SeekbarMetrics metrics = mMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+        final long invalidateCount = mInvalidateCount;
+
         if (mClickIndex != -1) {
             final int actionIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
             final int x = (int) event.getX(actionIndex);
             final int y = (int) event.getY(actionIndex);
 
-            if (!mClickRectArray[mClickIndex].contains(x, y)) {
+            if (!mMarkLayout.contains(mClickIndex, x, y)) {
                 mClickIndex = -1;
             }
         }
 
-        if (mLeftHited && mLeftPointerID != -1) {
-
-            final int index = event.findPointerIndex(mLeftPointerID);
-            final float x = event.getX(index);
+        // Batched samples since last event are followed one by one, so that
+        // pushes happen where the finger really went. Prediction only moves
+        // the drawn cursor, never the position it follows.
+        final TouchPredictor predictor = mPredictor;
+        final int historySize = event.getHistorySize();
+        final int pointerCount = event.getPointerCount();
+        for (int p = 0; p < pointerCount; p++) {
+            final int cursor = cursorOfPointer(event.getPointerId(p));
+            if (cursor == -1) {
+                continue;
+            }
 
-            float deltaX = x - mLeftPointerLastX;
-            mLeftPointerLastX = (int) x;
+            boolean moved = false;
+            for (int h = 0; h < historySize; h++) {
+                final float x = event.getHistoricalX(p, h);
+                if (predictor != null) {
+                    predictor.addSample(cursor, x,
+                            event.getHistoricalEventTime(h));
+                }
+                moved |= moveCursor(cursor, x);
+            }
 
-            DIRECTION direction = (deltaX < 0 ? DIRECTION.LEFT
-                    : DIRECTION.RIGHT);
+            final float x = event.getX(p);
+            moved |= moveCursor(cursor, x);
+            if (predictor != null) {
+                predictor.addSample(cursor, x, event.getEventTime());
+                moved |= mFrame.setPrediction(cursor,
+                        predictor.predict(cursor, mPredictionWindow) - x);
+            }
 
-            if (direction == DIRECTION.LEFT && mLeftCursorIndex == 0) {
-                return;
+            if (moved) {
+                invalidateCursors(cursor, cursor);
             }
+        }
 
-            // Check whether cursor will move out of boundary
-            if (mLeftCursorRect.left + deltaX < mPaddingRect.left) {
-                mLeftCursorIndex = 0;
-                invalidate();
-                return;
+        if (metrics != null) {
+            metrics.recordTouchMoveTime(System.nanoTime() - start);
+            if (mPendingInputTime == 0 && mInvalidateCount != invalidateCount) {
+                mPendingInputTime = event.getEventTime();
             }
+        }
+    }
 
-            // Check whether left and right cursor will collision.
-            if (mLeftCursorRect.right + deltaX >= mRightCursorRect.left) {
-                // Check whether right cursor is in "Touch" mode( if in touch
-                // mode, represent that we can not move it at all), or right
-                // cursor reach the boundary.
-                if (mRightHited || mRightCursorIndex == mTextArray.length - 1
-                        || mRightScroller.computeScrollOffset()) {
-                    // Just move left cursor to the left side of right one.
-                    deltaX = mRightCursorRect.left - mLeftCursorRect.right;
-                } else {
-                    // Move right cursor to higher location.
-                    final int maxMarkIndex = mTextArray.length - 1;
-
-                    if (mRightCursorIndex <= maxMarkIndex - 1) {
-                        mRightCursorNextIndex = (int) (mRightCursorIndex + 1);
-
-                        if (!mRightScroller.computeScrollOffset()) {
-                            final int fromX = (int) (mRightCursorIndex * mPartLength);
-
-                            mRightScroller
-                                    .startScroll(fromX, 0,
-                                            mRightCursorNextIndex * mPartLength
-                                                    - fromX, 0, mDuration);
-                            triggleCallback(false, mRightCursorNextIndex);
-                        }
-                    }
+    /**
+     * Move a touched cursor following its pointer. Only its two neighbours
+     * are involved, whatever the count of cursors is.
+     * 
+     * @return whether cursor moved, the caller invalidates it.
+     */
+    private boolean moveCursor(int cursor, float x) {
+        final int result = mFrame.move(cursor, x, isCursorPinned(cursor - 1),
+                isCursorPinned(cursor + 1));
+
+        if ((result & RangeModel.MOVE_PUSHED) != 0) {
+            // A pushed cursor is never animated, see isCursorPinned.
+            final int pushed = mModel.getPushedCursor();
+            startAnimation(pushed);
+            triggleCallback(pushed, mModel.getNextIndex(pushed));
+        }
+
+        return (result & RangeModel.MOVE_CHANGED) != 0;
+    }
+
+    /**
+     * Advance every running animation, redraw cursors which moved a pixel
+     * and come back on next frame while any is running.
+     */
+    private void stepAnimations() {
+        final boolean running = mAnimator.step();
+        final int first = mAnimator.getChangedFirst();
+        if (first != -1) {
+            final int last = mAnimator.getChangedLast();
+            for (int i = first; i <= last; i++) {
+                if (mAnimator.isChanged(i)) {
+                    mModel.setIndex(i, mAnimator.getValue(i));
                 }
             }
+            invalidateCursors(first, last);
+        }
 
-            // After some calculate, if deltaX is still be zero, do quick
-            // return.
-            if (deltaX == 0) {
-                return;
-            }
+        if (running) {
+            scheduleAnimationFrame();
+        }
+        checkRangeSettled();
+    }
+
+    /**
+     * Run {@link #stepAnimations()} on next frame, driven by Choreographer
+     * since Jelly Bean.
+     */
+    private void scheduleAnimationFrame() {
+        removeCallbacks(mAnimationTick);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postOnAnimation(mAnimationTick);
+        } else {
+            postDelayed(mAnimationTick, FRAME_DELAY);
+        }
+    }
 
-            // Calculate the movement.
-            final float moveX = deltaX / mPartLength;
-            mLeftCursorIndex += moveX;
+    /**
+     * Invalidate only the region changed since last frame by cursors in
+     * [first, last]: old and new bounds of moved cursors, which also cover
+     * the changed part of seekbar, and text marks whose selected state
+     * flipped.
+     * 
+     * @return false if nothing visible changed, and the frame is skipped.
+     */
+    private boolean invalidateCursors(int first, int last) {
+        final boolean countChanged = updateRangeCount()
+                && mRangeCountLabel != null;
+        final SeekbarFrame frame = mFrame;
+        if (!frame.isChanged(first, last) && !countChanged) {
+            frame.skipFrame();
+            return false;
+        }
 
-            invalidate();
+        frame.clearDirty();
+        if (countChanged) {
+            frame.unionDirty((int) mSeekbarRect.left, (int) mSeekbarRect.top
+                    - mTextSize - 4, (int) mSeekbarRect.right + 2,
+                    (int) mSeekbarRect.top);
+        }
+        frame.unionChanged(first, last);
+        if (frame.isDirtyEmpty()) {
+            frame.skipFrame();
+            return false;
         }
 
-        if (mRightHited && mRightPointerID != -1) {
+        final Rect dirty = mDirtyRect;
+        dirty.set(frame.getDirtyLeft(), frame.getDirtyTop(),
+                frame.getDirtyRight(), frame.getDirtyBottom());
+        recordInvalidate(dirty.left, dirty.top, dirty.right, dirty.bottom);
+        invalidate(dirty);
+        return true;
+    }
 
-            final int index = event.findPointerIndex(mRightPointerID);
-            final float x = event.getX(index);
+    private void recordInvalidate(int left, int top, int right, int bottom) {
+        if (mMetrics != null) {
+            mInvalidateCount++;
+            mMetrics.recordInvalidate(SystemClock.uptimeMillis());
+        }
+        if (mDebugOverlay != null) {
+            mDebugOverlay.recordInvalidate(left, top, right, bottom,
+                    SystemClock.uptimeMillis());
+        }
+    }
 
-            float deltaX = x - mRightPointerLastX;
-            mRightPointerLastX = (int) x;
+    /**
+     * Click areas of drawn marks, cursor bounds, then flashes, frame graph
+     * and rates. Keeps redrawing the whole view while a flash is fading.
+     */
+    private void drawDebugOverlay(Canvas canvas, DebugOverlay overlay) {
+        final MarkLayout layout = mMarkLayout;
+        final int clickTop = layout.getClickTop();
+        final int clickBottom = layout.getClickBottom();
+        final int visibleCount = layout.getVisibleCount();
+        for (int n = 0; n < visibleCount; n++) {
+            final int i = layout.getVisibleIndex(n);
+            overlay.drawClickRect(canvas, layout.getClickLeft(i), clickTop,
+                    layout.getClickRight(i), clickBottom);
+        }
 
-            DIRECTION direction = (deltaX < 0 ? DIRECTION.LEFT
-                    : DIRECTION.RIGHT);
+        final int cursorCount = mModel.getCursorCount();
+        final SeekbarGeometry geometry = mGeometry;
+        for (int i = 0; i < cursorCount; i++) {
+            final int left = mFrame.getDrawnCursorLeft(i);
+            final int top = geometry.getCursorTop(i);
+            overlay.drawCursorRect(canvas, left, top,
+                    left + geometry.getCursorWidth(i),
+                    top + geometry.getCursorHeight(i));
+        }
 
-            final int maxIndex = mTextArray.length - 1;
-            if (direction == DIRECTION.RIGHT && mRightCursorIndex == maxIndex) {
-                return;
+        if (overlay.draw(canvas, getPaddingLeft(), getPaddingTop(),
+                SystemClock.uptimeMillis())) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                postInvalidateOnAnimation();
+            } else {
+                postInvalidateDelayed(FRAME_DELAY);
             }
+        }
+    }
 
-            if (mRightCursorRect.right + deltaX > mRightBoundary) {
-                deltaX = mRightBoundary - mRightCursorRect.right;
-            }
+    /**
+     * Animate cursor from where it is to its next index. A running animation
+     * is retargeted instead of being dropped.
+     */
+    private void startAnimation(int cursor) {
+        mAnimator.animateTo(cursor, mModel.getIndex(cursor),
+                mModel.getNextIndex(cursor), mDuration);
+        scheduleAnimationFrame();
+    }
 
-            final int maxMarkIndex = mTextArray.length - 1;
-            if (direction == DIRECTION.RIGHT
-                    && mRightCursorIndex == maxMarkIndex) {
-                return;
-            }
+    private void triggleCallback(int cursor, int location) {
+        if (mRangeListener != null || mAsyncDispatcher != null
+                || mColumnSlice != null) {
+            mRangeUnsettled = true;
+            mRangeChangePending = true;
+            scheduleRangeEvent();
+        }
 
-            if (mRightCursorRect.left + deltaX < mLeftCursorRect.right) {
-                if (mLeftHited || mLeftCursorIndex == 0
-                        || mLeftScroller.computeScrollOffset()) {
-                    deltaX = mLeftCursorRect.right - mRightCursorRect.left;
-                } else {
-                    if (mLeftCursorIndex >= 1) {
-                        mLeftCursorNextIndex = (int) (mLeftCursorIndex - 1);
-
-                        if (!mLeftScroller.computeScrollOffset()) {
-                            final int fromX = (int) (mLeftCursorIndex * mPartLength);
-                            mLeftScroller.startScroll(fromX, 0,
-                                    mLeftCursorNextIndex * mPartLength - fromX,
-                                    0, mDuration);
-                            triggleCallback(true, mLeftCursorNextIndex);
-                        }
-                    }
-                }
-            }
+        if (mListener == null && mMultiListener == null) {
+            return;
+        }
 
-            if (deltaX == 0) {
-                return;
+        final SeekbarMetrics metrics = mMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+
+        final String textMark = getLabel(location);
+        if (mMultiListener != null) {
+            mMultiListener.onCursorChanged(cursor, location, textMark);
+        }
+        if (mListener != null) {
+            if (cursor == 0) {
+                mListener.onLeftCursorChanged(location, textMark);
+            } else if (cursor == mModel.getCursorCount() - 1) {
+                mListener.onRightCursorChanged(location, textMark);
             }
+        }
+
+        if (metrics != null) {
+            metrics.recordListenerTime(System.nanoTime() - start);
+        }
+    }
 
-            final float moveX = deltaX / mPartLength;
-            mRightCursorIndex += moveX;
+    /**
+     * Once all cursors are released and their animations finished, report
+     * the range as settled on next frame.
+     */
+    private void checkRangeSettled() {
+        if (!mRangeUnsettled) {
+            return;
+        }
 
-            invalidate();
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i++) {
+            if (mCursorPointerIdArray[i] != -1 || mAnimator.isRunning(i)) {
+                return;
+            }
         }
+
+        mRangeUnsettled = false;
+        mRangeSettlePending = true;
+        scheduleRangeEvent();
     }
 
-    @Override
-    public void computeScroll() {
-        if (mLeftScroller.computeScrollOffset()) {
-            final int deltaX = mLeftScroller.getCurrX();
+    private void scheduleRangeEvent() {
+        if (mRangeEventScheduled) {
+            return;
+        }
 
-            mLeftCursorIndex = (float) deltaX / mPartLength;
+        mRangeEventScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postOnAnimation(mRangeEventTick);
+        } else {
+            postDelayed(mRangeEventTick, FRAME_DELAY);
+        }
+    }
 
-            invalidate();
+    /**
+     * Called at most once per frame, whatever count of changes happened
+     * since last one.
+     */
+    private void dispatchRangeEvents() {
+        mRangeEventScheduled = false;
+        final boolean changed = mRangeChangePending;
+        final boolean settled = mRangeSettlePending;
+        mRangeChangePending = false;
+        mRangeSettlePending = false;
+
+        final SeekbarMetrics metrics = mMetrics;
+
+        if (mRangeCountPending) {
+            mRangeCountPending = false;
+            if (mCountListener != null) {
+                final long start = metrics != null ? System.nanoTime() : 0;
+                mCountListener.onRangeCountChanged(this, mRangeCount);
+                if (metrics != null) {
+                    metrics.recordListenerTime(System.nanoTime() - start);
+                }
+            }
         }
 
-        if (mRightScroller.computeScrollOffset()) {
-            final int deltaX = mRightScroller.getCurrX();
+        final OnRangeChangeListener listener = mRangeListener;
+        final AsyncRangeDispatcher<?> dispatcher = mAsyncDispatcher;
+        if (listener == null && dispatcher == null && mColumnSlice == null) {
+            return;
+        }
 
-            mRightCursorIndex = (float) deltaX / mPartLength;
+        final int[] locations = mRangeLocationArray;
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = mModel.getNextIndex(i);
+        }
 
-            invalidate();
+        if (changed && mColumnSlice != null) {
+            mColumnSlice.select(locations[0], locations[locations.length - 1]);
         }
-    }
 
-    private void triggleCallback(boolean isLeft, int location) {
-        if (mListener == null) {
+        if (changed && dispatcher != null) {
+            dispatcher.submit(locations);
+        }
+        if (listener == null || !(changed || settled)) {
             return;
         }
 
-        if (isLeft) {
-            mListener.onLeftCursorChanged(location,
-                    mTextArray[location].toString());
-        } else {
-            mListener.onRightCursorChanged(location,
-                    mTextArray[location].toString());
+        final long start = metrics != null ? System.nanoTime() : 0;
+        if (changed) {
+            listener.onRangeChanged(this, locations);
+        }
+        if (settled) {
+            listener.onRangeSettled(this, locations);
+        }
+        if (metrics != null) {
+            metrics.recordListenerTime(System.nanoTime() - start);
         }
     }
 
     public void setLeftSelection(int partIndex) {
-        if (partIndex >= mTextArray.length - 1 || partIndex < 0) {
+        if (partIndex >= mModel.getMarkCount() - 1 || partIndex < 0) {
             throw new IllegalArgumentException(
                     "Index should from 0 to size of text array minus 2!");
         }
 
-        // if not initialized, just record the location
-        if (mPartLength == 0) {
-            mLeftCursorIndex = partIndex;
+        setSelection(0, partIndex);
+    }
 
-            return;
+    public void setRightSelection(int partIndex) {
+        if (partIndex > mModel.getMarkCount() - 1 || partIndex <= 1) {
+            throw new IllegalArgumentException(
+                    "Index should from 1 to size of text array minus 1!");
         }
 
-        if (partIndex != mLeftCursorIndex) {
-            if (!mLeftScroller.isFinished()) {
-                mLeftScroller.abortAnimation();
-            }
-            mLeftCursorNextIndex = partIndex;
-            final int leftFromX = (int) (mLeftCursorIndex * mPartLength);
-            mLeftScroller.startScroll(leftFromX, 0, mLeftCursorNextIndex
-                    * mPartLength - leftFromX, 0, mDuration);
-            triggleCallback(true, mLeftCursorNextIndex);
-
-            if (mRightCursorIndex <= mLeftCursorNextIndex) {
-                if (!mRightScroller.isFinished()) {
-                    mRightScroller.abortAnimation();
-                }
-                mRightCursorNextIndex = mLeftCursorNextIndex + 1;
-                final int rightFromX = (int) (mRightCursorIndex * mPartLength);
-                mRightScroller.startScroll(rightFromX, 0, mRightCursorNextIndex
-                        * mPartLength - rightFromX, 0, mDuration);
-                triggleCallback(false, mRightCursorNextIndex);
-            }
-
-            invalidate();
-        }
+        setSelection(mModel.getCursorCount() - 1, partIndex);
     }
 
-    public void setRightSelection(int partIndex) {
-        if (partIndex > mTextArray.length - 1 || partIndex <= 1) {
+    /**
+     * Move a cursor to the mark at index. Neighbours in the way are pushed
+     * to the following marks.
+     * 
+     * @param cursor
+     *            from 0 to {@link #getCursorCount()} minus 1, from left to
+     *            right.
+     * @param index
+     */
+    public void setSelection(int cursor, int index) {
+        final int cursorCount = mModel.getCursorCount();
+        if (cursor < 0 || cursor >= cursorCount) {
             throw new IllegalArgumentException(
-                    "Index should from 1 to size of text array minus 1!");
+                    "Cursor should from 0 to count of cursors minus 1!");
         }
 
         // if not initialized, just record the location
-        if (mPartLength == 0) {
-            mRightCursorIndex = partIndex;
+        if (mGeometry == null) {
+            mModel.select(cursor, index);
+            for (int i = mModel.getPushedFirst(); i <= mModel.getPushedLast(); i++) {
+                mModel.setIndex(i, mModel.getNextIndex(i));
+            }
+            updateRangeCount();
 
             return;
         }
 
-        if (partIndex != mRightCursorIndex) {
-            if (!mRightScroller.isFinished()) {
-                mRightScroller.abortAnimation();
-            }
-
-            mRightCursorNextIndex = partIndex;
-            final int rightFromX = (int) (mPartLength * mRightCursorIndex);
-            mRightScroller.startScroll(rightFromX, 0, mRightCursorNextIndex
-                    * mPartLength - rightFromX, 0, mDuration);
-            triggleCallback(false, mRightCursorNextIndex);
-
-            if (mLeftCursorIndex >= mRightCursorNextIndex) {
-                if (!mLeftScroller.isFinished()) {
-                    mLeftScroller.abortAnimation();
-                }
+        if (index != mModel.getIndex(cursor)) {
+            mModel.select(cursor, index);
+            final int pushedFirst = mModel.getPushedFirst();
+            final int pushedLast = mModel.getPushedLast();
 
-                mLeftCursorNextIndex = mRightCursorNextIndex - 1;
-                final int leftFromX = (int) (mLeftCursorIndex * mPartLength);
-                mLeftScroller.startScroll(leftFromX, 0, mLeftCursorNextIndex
-                        * mPartLength - leftFromX, 0, mDuration);
-                triggleCallback(true, mLeftCursorNextIndex);
+            startAnimation(cursor);
+            triggleCallback(cursor, index);
+            for (int i = cursor + 1; i <= pushedLast; i++) {
+                startAnimation(i);
+                triggleCallback(i, mModel.getNextIndex(i));
+            }
+            for (int i = cursor - 1; i >= pushedFirst; i--) {
+                startAnimation(i);
+                triggleCallback(i, mModel.getNextIndex(i));
             }
-            invalidate();
         }
     }
 
@@ -898,7 +1738,7 @@ public class RangeSeekbar extends View {
 
         mLeftCursorBG = drawable;
 
-        requestLayout();
+        requestLayoutIfNeeded();
         invalidate();
     }
 
@@ -910,7 +1750,7 @@ public class RangeSeekbar extends View {
 
         mLeftCursorBG = getResources().getDrawable(resID);
 
-        requestLayout();
+        requestLayoutIfNeeded();
         invalidate();
     }
 
@@ -922,7 +1762,7 @@ public class RangeSeekbar extends View {
 
         mRightCursorBG = drawable;
 
-        requestLayout();
+        requestLayoutIfNeeded();
         invalidate();
     }
 
@@ -934,7 +1774,7 @@ public class RangeSeekbar extends View {
 
         mRightCursorBG = getResources().getDrawable(resID);
 
-        requestLayout();
+        requestLayoutIfNeeded();
         invalidate();
     }
 
@@ -945,6 +1785,7 @@ public class RangeSeekbar extends View {
         }
 
         mTextColorNormal = color;
+        mStaticLayerDirty = true;
 
         invalidate();
     }
@@ -956,6 +1797,7 @@ public class RangeSeekbar extends View {
         }
 
         mTextColorSelected = color;
+        mStaticLayerDirty = true;
 
         invalidate();
     }
@@ -967,6 +1809,7 @@ public class RangeSeekbar extends View {
         }
 
         mSeekbarColorNormal = color;
+        mStaticLayerDirty = true;
 
         invalidate();
     }
@@ -978,6 +1821,7 @@ public class RangeSeekbar extends View {
         }
 
         mSeekbarColorSelected = color;
+        mStaticLayerDirty = true;
 
         invalidate();
     }
@@ -994,6 +1838,9 @@ public class RangeSeekbar extends View {
         }
 
         mSeekbarHeight = height;
+
+        requestLayoutIfNeeded();
+        invalidate();
     }
 
     /**
@@ -1009,7 +1856,7 @@ public class RangeSeekbar extends View {
 
         mMarginBetween = space;
 
-        requestLayout();
+        requestLayoutIfNeeded();
         invalidate();
     }
 
@@ -1024,16 +1871,165 @@ public class RangeSeekbar extends View {
             throw new IllegalArgumentException(
                     "Text array is null, how can i do...");
         }
+        checkCursorCount(mModel.getCursorCount(), marks.length);
 
         mTextArray = marks;
-        mLeftCursorIndex = 0;
-        mRightCursorIndex = mTextArray.length - 1;
-        mRightCursorNextIndex = (int) mRightCursorIndex;
-        mTextWidthArray = new float[marks.length];
-        mClickRectArray = new Rect[mTextArray.length];
-        initTextWidthArray();
-
-        requestLayout();
+        mNumericRange = null;
+        mLabelCache = null;
+        mModel.setMarkCount(marks.length);
+        initTextMarkArrays();
+        updateRangeCount();
+
+        requestLayoutIfNeeded();
+        invalidate();
+    }
+
+    /**
+     * Bind a recycled seekbar, e.g. in a list row, to new marks and
+     * selection, keeping current colors. See
+     * {@link #bind(CharSequence[], int[], int, int, int, int)}.
+     */
+    public void bind(CharSequence[] marks, int... selection) {
+        bind(marks, selection, mTextColorNormal, mTextColorSelected,
+                mSeekbarColorNormal, mSeekbarColorSelected);
+    }
+
+    /**
+     * Bind a recycled seekbar to new marks, selection and colors in one
+     * call. Cursors jump to the selection without animation, no listener is
+     * called and no layout is requested, so binding costs one redraw.
+     * Existing arrays are reused when they are big enough, and marks already
+     * measured by any seekbar are not measured again. Binding the same marks
+     * and colors keeps laid out marks and the static layer.
+     * 
+     * @param selection
+     *            ascending index of every cursor, see
+     *            {@link #getCursorCount()}.
+     */
+    public void bind(CharSequence[] marks, int[] selection,
+            int textColorNormal, int textColorSelected,
+            int seekbarColorNormal, int seekbarColorSelected) {
+        if (marks == null || marks.length == 0) {
+            throw new IllegalArgumentException(
+                    "Text array is null, how can i do...");
+        }
+        final int cursorCount = mModel.getCursorCount();
+        checkCursorCount(cursorCount, marks.length);
+        if (selection == null || selection.length != cursorCount) {
+            throw new IllegalArgumentException(
+                    "Selection should have an index for every cursor!");
+        }
+        for (int i = 0; i < cursorCount; i++) {
+            if (selection[i] < 0 || selection[i] >= marks.length
+                    || (i > 0 && selection[i] <= selection[i - 1])) {
+                throw new IllegalArgumentException(
+                        "Selection should be ascending indexes of marks!");
+            }
+        }
+
+        // Drop everything left by the previous binding.
+        for (int i = 0; i < cursorCount; i++) {
+            mAnimator.cancel(i);
+            mCursorPointerIdArray[i] = -1;
+        }
+        Arrays.fill(mPointerCursorMap, -1);
+        mClickIndex = -1;
+        if (mAsyncDispatcher != null) {
+            mAsyncDispatcher.cancel();
+        }
+
+        // Rows often bind the same marks again, which needs no layout.
+        final boolean marksChanged = marks != mTextArray
+                && !Arrays.equals(marks, mTextArray);
+        if (marksChanged) {
+            mTextArray = marks;
+            mNumericRange = null;
+            mLabelCache = null;
+            mModel.setMarkCount(marks.length);
+            initTextMarkArrays();
+        }
+        for (int i = 0; i < cursorCount; i++) {
+            mModel.setIndex(i, selection[i]);
+            mModel.setNextIndex(i, selection[i]);
+        }
+
+        if (textColorNormal != mTextColorNormal
+                || textColorSelected != mTextColorSelected
+                || seekbarColorNormal != mSeekbarColorNormal
+                || seekbarColorSelected != mSeekbarColorSelected) {
+            mTextColorNormal = textColorNormal;
+            mTextColorSelected = textColorSelected;
+            mSeekbarColorNormal = seekbarColorNormal;
+            mSeekbarColorSelected = seekbarColorSelected;
+            mStaticLayerDirty = true;
+        }
+
+        // Geometry does not depend on marks, lay them out again for the
+        // current width right now. The static layer is marked dirty there.
+        if (marksChanged && mGeometry != null) {
+            layoutTextMarks();
+        }
+
+        if (mColumnSlice != null) {
+            mColumnSlice.select(selection[0], selection[cursorCount - 1]);
+        }
+        updateRangeCount();
+        mRangeCountPending = false;
+        mRangeChangePending = false;
+        mRangeSettlePending = false;
+        mRangeUnsettled = false;
+
+        invalidate();
+    }
+
+    /**
+     * Numeric mode: marks are steps from min to max, and text of marks are
+     * created on demand by {@link LabelProvider}. Memory does not depend on
+     * count of steps, only a bounded cache of labels is kept.
+     * 
+     * @param min
+     * @param max
+     * @param step
+     *            at most {@link NumericRange#MAX_COUNT} steps from min to
+     *            max.
+     */
+    public void setRange(double min, double max, double step) {
+        final NumericRange range = new NumericRange(min, max, step);
+        checkCursorCount(mModel.getCursorCount(), range.getCount());
+
+        mNumericRange = range;
+        mDefaultLabelProvider = new DecimalLabelProvider(
+                mNumericRange.getFractionDigits());
+        mTextArray = null;
+        mTextStringArray = null;
+        mTextWidthArray = null;
+        mLabelCount = 0;
+        if (mLabelCache == null) {
+            mLabelCache = new LabelCache(LABEL_CACHE_CAPACITY);
+        } else {
+            mLabelCache.clear();
+        }
+        mModel.setMarkCount(mNumericRange.getCount());
+        updateRangeCount();
+
+        requestLayoutIfNeeded();
+        invalidate();
+    }
+
+    /**
+     * Set how text of marks are created in numeric mode.
+     * 
+     * @param provider
+     *            null to print values with as many fraction digits as
+     *            min and step have.
+     */
+    public void setLabelProvider(LabelProvider provider) {
+        mLabelProvider = provider;
+        if (mLabelCache != null) {
+            mLabelCache.clear();
+        }
+
+        requestLayoutIfNeeded();
         invalidate();
     }
 
@@ -1050,23 +2046,495 @@ public class RangeSeekbar extends View {
 
         mTextSize = size;
         mPaint.setTextSize(size);
+        measureRangeCount();
+
+        // Widths of marks depend on text size.
+        if (mLabelCache != null) {
+            mLabelCache.clear();
+        }
+        initTextMarkArrays();
+
+        requestLayoutIfNeeded();
+        invalidate();
+    }
+
+    /**
+     * Set how marks are distributed along the seekbar, e.g. {@link LogScale}
+     * to give more room to the low end.
+     * 
+     * @param scale
+     *            null for linear.
+     */
+    public void setScale(Scale scale) {
+        mScale = scale;
+
+        requestLayoutIfNeeded();
+        invalidate();
+    }
+
+    /**
+     * Whether text marks overlapping their neighbours should be skipped when
+     * there are too many marks for the width. Enabled by default.
+     * 
+     * @param enabled
+     */
+    public void setMarkDecimationEnabled(boolean enabled) {
+        mMarkLayout.setDecimationEnabled(enabled);
+
+        requestLayoutIfNeeded();
+        invalidate();
+    }
+
+    /**
+     * Draw distribution of histogram behind the seekbar, bars inside selected
+     * bands are highlighted. Fill histogram on any thread, the seekbar is
+     * redrawn every time it is published. A histogram can only be shown by
+     * one seekbar at a time.
+     * 
+     * @param histogram
+     *            null to remove.
+     */
+    public void setHistogram(Histogram histogram) {
+        if (mHistogram != null) {
+            mHistogram.setOnPublishListener(null);
+        }
+
+        mHistogram = histogram;
+        mHistogramSnapshot = null;
+        mHistogramPathDirty = true;
+        updateHistogramTop();
+        if (histogram != null) {
+            histogram.setOnPublishListener(mHistogramListener);
+        }
+
+        invalidate();
+    }
+
+    public Histogram getHistogram() {
+        return mHistogram;
+    }
+
+    public void setHistogramColors(int normal, int selected) {
+        mHistogramColorNormal = normal;
+        mHistogramColorSelected = selected;
+
+        invalidate();
+    }
+
+    /**
+     * Count items inside bands while cursors move, see
+     * {@link #setOnRangeCountListener(OnRangeCountListener)} and
+     * {@link #setRangeCountLabel(String)}. Index should be built for the
+     * current marks or range.
+     * 
+     * @param index
+     *            null to stop counting.
+     */
+    public void setCountIndex(CountIndex index) {
+        mCountIndex = index;
+        mRangeCount = -1;
+        updateRangeCount();
+
+        invalidate();
+    }
+
+    /**
+     * Count of items inside bands, or -1 without a count index.
+     */
+    public int getRangeCount() {
+        return mRangeCount;
+    }
+
+    /**
+     * Called at most once per frame when count of items changes.
+     */
+    public void setOnRangeCountListener(OnRangeCountListener l) {
+        mCountListener = l;
+    }
+
+    /**
+     * Draw count of items above the end of seekbar, e.g. "%d items". Make
+     * space between text marks and seekbar big enough for it.
+     * 
+     * @param format
+     *            text with exactly one "%d" for the count, "%%" for a
+     *            percent sign. Null to hide.
+     */
+    public void setRangeCountLabel(String format) {
+        mRangeCountLabel = format != null ? new CountLabel(format) : null;
+        if (mRangeCountLabel != null && mRangeCount >= 0) {
+            mRangeCountLabel.setCount(mRangeCount);
+        }
+        measureRangeCount();
+
+        invalidate();
+    }
+
+    /**
+     * Opt-in caching mode. Text marks and seekbar are rendered once into two
+     * bitmaps per size, and every frame only composites them and draws the
+     * cursors. Costs two bitmaps of the size of view.
+     * 
+     * @param enabled
+     */
+    public void setStaticLayerEnabled(boolean enabled) {
+        if (mStaticLayerEnabled == enabled) {
+            return;
+        }
+
+        mStaticLayerEnabled = enabled;
+        if (!enabled) {
+            releaseStaticLayer();
+        }
+        mStaticLayerDirty = true;
+
+        invalidate();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        // Resume animations interrupted by detaching.
+        if (mAnimator.isRunning()) {
+            scheduleAnimationFrame();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        removeCallbacks(mAnimationTick);
+        removeCallbacks(mRangeEventTick);
+        if (mAsyncDispatcher != null) {
+            mAsyncDispatcher.cancel();
+        }
+        mRangeEventScheduled = false;
+        mRangeChangePending = false;
+        mRangeSettlePending = false;
+        mRangeCountPending = false;
+        releaseStaticLayer();
+    }
+
+    /**
+     * Measure onDraw, touch handling, touch-to-draw latency, invalidations
+     * and listeners, e.g. with a {@link MetricsRecorder}. Off by default.
+     * 
+     * @param metrics
+     *            null to stop measuring.
+     */
+    public void setMetrics(SeekbarMetrics metrics) {
+        mMetrics = metrics;
+        mPendingInputTime = 0;
+    }
+
+    public SeekbarMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Estimated bytes retained by this seekbar: per-mark and per-cursor
+     * arrays, label cache, scale tables and static layer bitmaps. Text marks
+     * shared through {@link TextWidthCache} are not counted, see
+     * {@link TextWidthCache.Marks#getMemoryFootprint()}, neither are objects
+     * set by users such as {@link Histogram} or {@link CountIndex}.
+     */
+    public long getMemoryFootprint() {
+        long bytes = mMarkLayout.getMemoryFootprint()
+                + mScaleTable.getMemoryFootprint()
+                + mAnimator.getMemoryFootprint()
+                + mFrame.getMemoryFootprint()
+                + MemoryFootprint.of(mCursorPointerIdArray)
+                + MemoryFootprint.of(mPointerCursorMap)
+                + MemoryFootprint.of(mRangeLocationArray);
+
+        // Labels of numeric mode belong to this seekbar.
+        if (mNumericRange != null) {
+            bytes += MemoryFootprint.of(mTextStringArray)
+                    + MemoryFootprint.of(mTextWidthArray);
+        }
+        if (mLabelCache != null) {
+            bytes += mLabelCache.getMemoryFootprint();
+        }
+        if (mPredictor != null) {
+            bytes += mPredictor.getMemoryFootprint();
+        }
+        if (mNormalLayer != null) {
+            bytes += (long) mNormalLayer.getRowBytes()
+                    * mNormalLayer.getHeight();
+        }
+        if (mSelectedLayer != null) {
+            bytes += (long) mSelectedLayer.getRowBytes()
+                    * mSelectedLayer.getHeight();
+        }
+        return bytes;
+    }
+
+    /**
+     * Draw touched cursors ahead of their pointers by the velocity of recent
+     * samples, so that they lag less behind the finger. Only drawing is
+     * affected: positions, pushes and listeners follow the real pointer, and
+     * the predicted part is taken back when the pointer goes up. Disabled by
+     * default.
+     * 
+     * @param windowMillis
+     *            how far to look ahead, usually one or two frames. 0 to
+     *            disable.
+     */
+    public void setTouchPrediction(int windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Window of prediction can not less than 0!");
+        }
+
+        mPredictionWindow = windowMillis;
+        if (windowMillis == 0) {
+            mPredictor = null;
+            final int cursorCount = mModel.getCursorCount();
+            for (int i = 0; i < cursorCount; i++) {
+                if (mFrame.setPrediction(i, 0)) {
+                    invalidateCursors(i, i);
+                }
+            }
+        } else if (mPredictor == null) {
+            mPredictor = new TouchPredictor(mModel.getCursorCount());
+        }
+    }
+
+    public int getTouchPrediction() {
+        return mPredictionWindow;
+    }
+
+    /**
+     * Draw click areas, cursor bounds, a flash on every invalidated region, a
+     * graph of recent frame times (red line is 16ms) and rates of frames,
+     * invalidations and move events on top of the seekbar. For debugging
+     * only, as the whole view is redrawn while flashes fade. Also enabled by
+     * attribute debugOverlay.
+     */
+    public void setDebugOverlayEnabled(boolean enabled) {
+        if (enabled == (mDebugOverlay != null)) {
+            return;
+        }
+        mDebugOverlay = enabled ? new DebugOverlay(mTextSize * 0.8f) : null;
+        invalidate();
+    }
+
+    public boolean isDebugOverlayEnabled() {
+        return mDebugOverlay != null;
+    }
+
+    /**
+     * Count of frames drawn since creation or last
+     * {@link #resetFrameCounters()}.
+     */
+    public long getDrawnFrameCount() {
+        return mFrame.getDrawnFrameCount();
+    }
+
+    /**
+     * Count of frames skipped because nothing visible changed.
+     */
+    public long getSkippedFrameCount() {
+        return mFrame.getSkippedFrameCount();
+    }
+
+    public void resetFrameCounters() {
+        mFrame.resetFrameCounters();
+    }
+
+    /**
+     * Change count of cursors, cursors will be spread from the first mark to
+     * the last one. Cursor 2n and 2n + 1 select the n-th band.
+     * 
+     * @param count
+     *            even number, at least 2 and not more than count of marks.
+     */
+    public void setCursorCount(int count) {
+        if (count < 2 || count % 2 != 0) {
+            throw new IllegalArgumentException(
+                    "Count of cursors should be an even number from 2!");
+        }
+        checkCursorCount(count, mModel.getMarkCount());
+        if (count == mModel.getCursorCount()) {
+            return;
+        }
+
+        mModel.setCursorCount(count);
+        initCursorArrays();
+        updateRangeCount();
+
+        invalidate();
+    }
+
+    public int getCursorCount() {
+        return mModel.getCursorCount();
+    }
+
+    public int getCursorIndex(int cursor) {
+        return (int) mModel.getIndex(cursor);
+    }
+
+    /**
+     * Value of cursor in numeric mode, or index of it in text mode.
+     */
+    public double getCursorValue(int cursor) {
+        if (mNumericRange == null) {
+            return getCursorIndex(cursor);
+        }
+        return mNumericRange.valueAt(getCursorIndex(cursor));
     }
 
     public int getLeftCursorIndex() {
-        return (int) mLeftCursorIndex;
+        return getCursorIndex(0);
     }
 
     public int getRightCursorIndex() {
-        return (int) mRightCursorIndex;
+        return getCursorIndex(mModel.getCursorCount() - 1);
+    }
+
+    /**
+     * Value of left cursor in numeric mode, or index of it in text mode.
+     */
+    public double getLeftValue() {
+        return getCursorValue(0);
+    }
+
+    /**
+     * Value of right cursor in numeric mode, or index of it in text mode.
+     */
+    public double getRightValue() {
+        return getCursorValue(mModel.getCursorCount() - 1);
+    }
+
+    /**
+     * Move left cursor to the step nearest to value. Numeric mode only.
+     */
+    public void setLeftValue(double value) {
+        if (mNumericRange == null) {
+            throw new IllegalStateException("Not in numeric mode!");
+        }
+        setLeftSelection(mNumericRange.indexOf(value));
+    }
+
+    /**
+     * Move right cursor to the step nearest to value. Numeric mode only.
+     */
+    public void setRightValue(double value) {
+        if (mNumericRange == null) {
+            throw new IllegalStateException("Not in numeric mode!");
+        }
+        setRightSelection(mNumericRange.indexOf(value));
     }
 
+    /**
+     * Only the first and the last cursor are reported, see
+     * {@link #setOnMultiCursorChangeListener(OnMultiCursorChangeListener)}
+     * for every cursor.
+     */
     public void setOnCursorChangeListener(OnCursorChangeListener l) {
         mListener = l;
     }
 
+    public void setOnMultiCursorChangeListener(OnMultiCursorChangeListener l) {
+        mMultiListener = l;
+    }
+
+    /**
+     * Unlike {@link OnCursorChangeListener}, changes are coalesced into at
+     * most one event per frame carrying every bound, and a separate event is
+     * sent when cursors stop.
+     */
+    public void setOnRangeChangeListener(OnRangeChangeListener l) {
+        mRangeListener = l;
+    }
+
+    /**
+     * Keep slice selecting rows between the first and the last cursor. It is
+     * updated right before {@link OnRangeChangeListener#onRangeChanged}, so
+     * listeners can read the new offset and length there.
+     * 
+     * @param slice
+     *            null to unbind.
+     */
+    public void bindColumn(ColumnSlice slice) {
+        mColumnSlice = slice;
+        if (slice != null) {
+            slice.select(mModel.getNextIndex(0),
+                    mModel.getNextIndex(mModel.getCursorCount() - 1));
+        }
+    }
+
+    /**
+     * Async mode for expensive consumers. Coalesced range changes are
+     * computed by callback on executor, only the latest range is kept and
+     * older work is cancelled through its token. Results are delivered on
+     * main thread, so dragging never waits for the consumer.
+     * 
+     * @param executor
+     *            where {@link AsyncRangeDispatcher.Callback#compute} runs.
+     * @param callback
+     *            null to stop async mode.
+     */
+    public <T> void setAsyncRangeCallback(Executor executor,
+            AsyncRangeDispatcher.Callback<T> callback) {
+        if (mAsyncDispatcher != null) {
+            mAsyncDispatcher.cancel();
+            mAsyncDispatcher = null;
+        }
+        if (callback == null) {
+            return;
+        }
+
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        mAsyncDispatcher = new AsyncRangeDispatcher<T>(executor,
+                new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        mainHandler.post(command);
+                    }
+                }, callback);
+    }
+
     public interface OnCursorChangeListener {
         void onLeftCursorChanged(int location, String textMark);
 
         void onRightCursorChanged(int location, String textMark);
     }
+
+    public interface OnMultiCursorChangeListener {
+        /**
+         * @param cursor
+         *            from 0 to count of cursors minus 1, from left to right.
+         */
+        void onCursorChanged(int cursor, int location, String textMark);
+    }
+
+    public interface OnRangeCountListener {
+        /**
+         * @param count
+         *            count of items inside all bands.
+         */
+        void onRangeCountChanged(RangeSeekbar seekbar, int count);
+    }
+
+    public interface OnRangeChangeListener {
+        /**
+         * Called at most once per frame when any cursor is going to a new
+         * mark.
+         * 
+         * @param locations
+         *            mark every cursor is located on or moving to, from left
+         *            to right. Owned by the seekbar, only valid during the
+         *            call.
+         */
+        void onRangeChanged(RangeSeekbar seekbar, int[] locations);
+
+        /**
+         * Called when all cursors have been released and their animations
+         * finished after a change.
+         */
+        void onRangeSettled(RangeSeekbar seekbar, int[] locations);
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Maps locations in the domain of marks to locations on the seekbar. Both are
+ * normalized from 0 to 1, and the mapping should be ascending with
+ * toPosition(0) == 0 and toPosition(1) == 1.
+ * <p>
+ * A scale is only evaluated when {@link ScaleTable} is built, so it can use
+ * expensive functions.
+ */
+public interface Scale {
+
+    /**
+     * @param fraction
+     *            location in the domain, index of mark divided by count of
+     *            marks minus 1.
+     * @return location on the seekbar.
+     */
+    float toPosition(float fraction);
+
+    /**
+     * Inverse of {@link #toPosition(float)}.
+     */
+    float toFraction(float position);
+}
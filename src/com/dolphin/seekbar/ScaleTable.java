@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Lookup tables of a {@link Scale}, built once per layout. Both directions
+ * are sampled uniformly and read with linear interpolation, so lookups cost
+ * a few multiplications whatever the scale is. {@link LinearScale} needs no
+ * table at all.
+ */
+public class ScaleTable {
+
+    /**
+     * Upper limit of samples in every table.
+     */
+    public static final int MAX_SAMPLES = 4096;
+
+    private Scale mScale = LinearScale.INSTANCE;
+    private boolean mLinear = true;
+
+    private float[] mPositionTable = new float[0];
+    private float[] mFractionTable = new float[0];
+    private int mSampleCount;
+
+    public Scale getScale() {
+        return mScale;
+    }
+
+    /**
+     * Estimated bytes of tables, see {@link MemoryFootprint}.
+     */
+    public long getMemoryFootprint() {
+        return MemoryFootprint.of(mPositionTable)
+                + MemoryFootprint.of(mFractionTable);
+    }
+
+    /**
+     * Sample scale into tables.
+     *
+     * @param scale
+     *            null for linear.
+     * @param samples
+     *            count of samples, usually length of seekbar in pixels.
+     *            Clamped from 2 to {@link #MAX_SAMPLES}.
+     */
+    public void build(Scale scale, int samples) {
+        mScale = scale != null ? scale : LinearScale.INSTANCE;
+        mLinear = mScale instanceof LinearScale;
+        if (mLinear) {
+            mSampleCount = 0;
+            return;
+        }
+
+        final int count = Math.max(2, Math.min(MAX_SAMPLES, samples));
+        if (mPositionTable.length < count) {
+            mPositionTable = new float[count];
+            mFractionTable = new float[count];
+        }
+        mSampleCount = count;
+
+        final float step = 1f / (count - 1);
+        for (int i = 0; i < count; i++) {
+            mPositionTable[i] = mScale.toPosition(i * step);
+            mFractionTable[i] = mScale.toFraction(i * step);
+        }
+        mPositionTable[0] = 0;
+        mPositionTable[count - 1] = 1;
+        mFractionTable[0] = 0;
+        mFractionTable[count - 1] = 1;
+    }
+
+    /**
+     * @see Scale#toPosition(float)
+     */
+    public float toPosition(float fraction) {
+        if (mLinear) {
+            return fraction;
+        }
+        return lookup(mPositionTable, fraction);
+    }
+
+    /**
+     * @see Scale#toFraction(float)
+     */
+    public float toFraction(float position) {
+        if (mLinear) {
+            return position;
+        }
+        return lookup(mFractionTable, position);
+    }
+
+    private float lookup(float[] table, float value) {
+        if (value <= 0) {
+            return 0;
+        }
+        if (value >= 1) {
+            return 1;
+        }
+
+        final float location = value * (mSampleCount - 1);
+        final int i = (int) location;
+        final float t = location - i;
+        return table[i] + t * (table[i + 1] - table[i]);
+    }
+}
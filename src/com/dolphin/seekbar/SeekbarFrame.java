@@ -0,0 +1,494 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.util.Arrays;
+
+/**
+ * Per-frame state of {@link RangeSeekbar} without any Android dependency:
+ * what the last drawn frame looks like, where every touching pointer was,
+ * and the region to redraw when cursors move.
+ * <p>
+ * Nothing here allocates once cursor count is set, so drawing and moving
+ * cost no garbage per frame.
+ */
+public class SeekbarFrame {
+
+    private final RangeModel mModel;
+    private final ScaleTable mScaleTable;
+    private final MarkLayout mMarkLayout;
+
+    private float mTrackLeft;
+    private float mTrackRight;
+    private SeekbarGeometry mGeometry;
+
+    /**
+     * Glyphs may be a little wider than measured, click areas of marks are
+     * widened by it when they are invalidated.
+     */
+    private int mMarkMargin;
+
+    /**
+     * Top of histogram bars, which change along with the seekbar.
+     */
+    private float mHistogramTop = Float.NaN;
+
+    private int mLabelStride = 1;
+    private int mLabelCount;
+
+    /**
+     * What the last drawn frame looks like: x-axis locations and bounds of
+     * cursors, and bounds of selected marks, ceil of lower cursors and floor
+     * of higher cursors. A frame is skipped if none of them changed.
+     */
+    private float[] mDrawnXArray = new float[0];
+    private int[] mDrawnCursorLeftArray = new int[0];
+    private int[] mDrawnThresholdArray = new int[0];
+
+    private long mDrawnFrameCount;
+    private long mSkippedFrameCount;
+
+    /**
+     * Last x-axis location of pointer touching every cursor, and how far it
+     * was from the center of the cursor when grabbed. Cursors are moved to
+     * where the pointer is minus the offset, never by summing deltas, since
+     * converting a delta through both scale tables is not exact.
+     */
+    private float[] mPointerXArray = new float[0];
+    private float[] mGrabOffsetArray = new float[0];
+
+    /**
+     * How far touched cursors are drawn ahead of where they are, see
+     * {@link #setPrediction(int, float)}.
+     */
+    private float[] mPredictionArray = new float[0];
+
+    private int mDirtyLeft;
+    private int mDirtyTop;
+    private int mDirtyRight;
+    private int mDirtyBottom;
+
+    /**
+     * @param model
+     *            cursors, shared with the seekbar.
+     * @param scaleTable
+     *            scale of the track, shared with the seekbar.
+     * @param markLayout
+     *            layout of text marks, shared with the seekbar.
+     */
+    public SeekbarFrame(RangeModel model, ScaleTable scaleTable,
+            MarkLayout markLayout) {
+        mModel = model;
+        mScaleTable = scaleTable;
+        mMarkLayout = markLayout;
+        setCursorCount(model.getCursorCount());
+    }
+
+    /**
+     * Reallocate per-cursor arrays, the next frame is never skipped.
+     */
+    public void setCursorCount(int count) {
+        mDrawnXArray = new float[count];
+        mDrawnCursorLeftArray = new int[count];
+        Arrays.fill(mDrawnCursorLeftArray, Integer.MIN_VALUE);
+        mDrawnThresholdArray = new int[count];
+        Arrays.fill(mDrawnThresholdArray, -1);
+        mPointerXArray = new float[count];
+        mGrabOffsetArray = new float[count];
+        mPredictionArray = new float[count];
+    }
+
+    public void setGeometry(SeekbarGeometry geometry) {
+        mGeometry = geometry;
+        mTrackLeft = geometry.getTrackLeft();
+        mTrackRight = geometry.getTrackRight();
+    }
+
+    public void setMarkMargin(int margin) {
+        mMarkMargin = margin;
+    }
+
+    /**
+     * @param top
+     *            top of histogram bars, or {@link Float#NaN} if there is no
+     *            histogram.
+     */
+    public void setHistogramTop(float top) {
+        mHistogramTop = top;
+    }
+
+    /**
+     * One label is laid out every stride steps, count labels in total.
+     */
+    public void setLabels(int stride, int count) {
+        mLabelStride = stride;
+        mLabelCount = count;
+    }
+
+    /**
+     * X-axis location of a fractional index of mark.
+     */
+    public float indexToX(float index) {
+        final int maxIndex = mModel.getMaxIndex();
+        if (maxIndex <= 0) {
+            return mTrackLeft;
+        }
+        return mTrackLeft + (mTrackRight - mTrackLeft)
+                * mScaleTable.toPosition(index / maxIndex);
+    }
+
+    /**
+     * Fractional index of mark at x-axis location, clamped to the seekbar.
+     */
+    public float xToIndex(float x) {
+        final float length = mTrackRight - mTrackLeft;
+        if (length <= 0) {
+            return 0;
+        }
+        return mScaleTable.toFraction((x - mTrackLeft) / length)
+                * mModel.getMaxIndex();
+    }
+
+    /**
+     * X-axis location where cursor is drawn when it is located at index,
+     * moved ahead by its prediction but never over a neighbour or out of the
+     * seekbar.
+     */
+    public float cursorX(int cursor, float index) {
+        final float x = indexToX(index);
+        final float prediction = mPredictionArray[cursor];
+        if (prediction == 0) {
+            return x;
+        }
+
+        final float limit;
+        final int neighbour = prediction > 0 ? cursor + 1 : cursor - 1;
+        if (neighbour < 0 || neighbour >= mModel.getCursorCount()) {
+            limit = prediction > 0 ? mTrackRight : mTrackLeft;
+        } else {
+            final float gapX = mGeometry != null ? (mGeometry
+                    .getCursorWidth(cursor) + mGeometry
+                    .getCursorWidth(neighbour)) / 2f : 0;
+            final float neighbourX = indexToX(mModel.getIndex(neighbour));
+            limit = prediction > 0 ? neighbourX - gapX : neighbourX + gapX;
+        }
+        return prediction > 0 ? Math.max(x, Math.min(x + prediction, limit))
+                : Math.min(x, Math.max(x + prediction, limit));
+    }
+
+    /**
+     * Left of cursor bounds when it is located at index.
+     */
+    public int cursorLeft(int cursor, float index) {
+        final int width = mGeometry != null ? mGeometry.getCursorWidth(cursor)
+                : 0;
+        return (int) (cursorX(cursor, index) - (float) width / 2);
+    }
+
+    /**
+     * First selected mark of a band for its lower cursor, or the last one
+     * for its higher cursor.
+     */
+    public static int selectedThreshold(int cursor, float index) {
+        return (cursor & 1) == 0 ? (int) Math.ceil(index) : (int) Math
+                .floor(index);
+    }
+
+    /**
+     * Smallest label located at or after index of step.
+     */
+    public int labelCeil(int index) {
+        if (index <= 0) {
+            return 0;
+        }
+        return (int) Math.min(((long) index + mLabelStride - 1) / mLabelStride,
+                mLabelCount - 1);
+    }
+
+    /**
+     * Biggest label located at or before index of step.
+     */
+    public int labelFloor(int index) {
+        if (index >= mModel.getMaxIndex()) {
+            return mLabelCount - 1;
+        }
+        return index < 0 ? -1 : index / mLabelStride;
+    }
+
+    /**
+     * Remember current state of every cursor as the drawn frame.
+     */
+    public void beginFrame() {
+        final int cursorCount = mModel.getCursorCount();
+        for (int i = 0; i < cursorCount; i++) {
+            final float index = mModel.getIndex(i);
+            mDrawnXArray[i] = cursorX(i, index);
+            mDrawnThresholdArray[i] = selectedThreshold(i, index);
+            mDrawnCursorLeftArray[i] = cursorLeft(i, index);
+        }
+        mDrawnFrameCount++;
+    }
+
+    /**
+     * X-axis location of cursor as last drawn, edge of the selected band.
+     */
+    public float getDrawnX(int cursor) {
+        return mDrawnXArray[cursor];
+    }
+
+    public int getDrawnThreshold(int cursor) {
+        return mDrawnThresholdArray[cursor];
+    }
+
+    public int getDrawnCursorLeft(int cursor) {
+        return mDrawnCursorLeftArray[cursor];
+    }
+
+    /**
+     * Whether the frame for current state would look different from the last
+     * drawn one, only checking cursors in [first, last].
+     */
+    public boolean isChanged(int first, int last) {
+        for (int i = first; i <= last; i++) {
+            final float index = mModel.getIndex(i);
+            if (cursorLeft(i, index) != mDrawnCursorLeftArray[i]
+                    || selectedThreshold(i, index) != mDrawnThresholdArray[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count a frame which is not drawn because nothing visible changed.
+     */
+    public void skipFrame() {
+        mSkippedFrameCount++;
+    }
+
+    public long getDrawnFrameCount() {
+        return mDrawnFrameCount;
+    }
+
+    public long getSkippedFrameCount() {
+        return mSkippedFrameCount;
+    }
+
+    public void resetFrameCounters() {
+        mDrawnFrameCount = 0;
+        mSkippedFrameCount = 0;
+    }
+
+    /**
+     * Start following a pointer from x, the cursor keeps its distance to
+     * the pointer from now on.
+     */
+    public void setPointerX(int cursor, float x) {
+        mPointerXArray[cursor] = x;
+        mGrabOffsetArray[cursor] = x - indexToX(mModel.getIndex(cursor));
+        mPredictionArray[cursor] = 0;
+    }
+
+    public float getPointerX(int cursor) {
+        return mPointerXArray[cursor];
+    }
+
+    /**
+     * Draw cursor offsetX pixels ahead of where it is, e.g. where its
+     * pointer is predicted to be. Only drawing is affected: the cursor
+     * position, pushes and selected marks follow the real pointer.
+     *
+     * @return whether the prediction changed.
+     */
+    public boolean setPrediction(int cursor, float offsetX) {
+        if (mPredictionArray[cursor] == offsetX) {
+            return false;
+        }
+        mPredictionArray[cursor] = offsetX;
+        return true;
+    }
+
+    public float getPrediction(int cursor) {
+        return mPredictionArray[cursor];
+    }
+
+    /**
+     * Move a touched cursor following its pointer to x. Only its two
+     * neighbours are involved, whatever the count of cursors is.
+     * 
+     * @return result of {@link RangeModel#move(int, float, boolean, boolean)}.
+     */
+    public int move(int cursor, float x, boolean lowerPinned,
+            boolean upperPinned) {
+        mPointerXArray[cursor] = x;
+
+        final float index = mModel.getIndex(cursor);
+        final float delta = xToIndex(x - mGrabOffsetArray[cursor]) - index;
+        updateCursorGap(cursor, delta > 0);
+        return mModel.move(cursor, delta, lowerPinned, upperPinned);
+    }
+
+    /**
+     * Minimal distance between cursors in mark space depends on where they
+     * are when scale is not linear, so it is measured around the neighbour
+     * which may be collided.
+     */
+    private void updateCursorGap(int cursor, boolean movingUp) {
+        final int neighbour = movingUp ? cursor + 1 : cursor - 1;
+        if (neighbour < 0 || neighbour >= mModel.getCursorCount()
+                || mGeometry == null) {
+            return;
+        }
+
+        final float gapX = (mGeometry.getCursorWidth(cursor) + mGeometry
+                .getCursorWidth(neighbour)) / 2f;
+        final float neighbourIndex = mModel.getIndex(neighbour);
+        if (movingUp) {
+            mModel.setCursorGap(neighbourIndex
+                    - xToIndex(indexToX(neighbourIndex) - gapX));
+        } else {
+            mModel.setCursorGap(xToIndex(indexToX(neighbourIndex) + gapX)
+                    - neighbourIndex);
+        }
+    }
+
+    public void clearDirty() {
+        mDirtyLeft = 0;
+        mDirtyTop = 0;
+        mDirtyRight = 0;
+        mDirtyBottom = 0;
+    }
+
+    /**
+     * Same rule as {@link android.graphics.Rect#union(int, int, int, int)}.
+     */
+    public void unionDirty(int left, int top, int right, int bottom) {
+        if (left >= right || top >= bottom) {
+            return;
+        }
+        if (isDirtyEmpty()) {
+            mDirtyLeft = left;
+            mDirtyTop = top;
+            mDirtyRight = right;
+            mDirtyBottom = bottom;
+            return;
+        }
+        mDirtyLeft = Math.min(mDirtyLeft, left);
+        mDirtyTop = Math.min(mDirtyTop, top);
+        mDirtyRight = Math.max(mDirtyRight, right);
+        mDirtyBottom = Math.max(mDirtyBottom, bottom);
+    }
+
+    /**
+     * Union the region changed since last frame by cursors in [first,
+     * last]: old and new bounds of moved cursors, which also cover the
+     * changed part of seekbar, and text marks whose selected state flipped.
+     */
+    public void unionChanged(int first, int last) {
+        for (int i = first; i <= last; i++) {
+            final float index = mModel.getIndex(i);
+            final float x = cursorX(i, index);
+            final float drawnX = mDrawnXArray[i];
+            if (x != drawnX) {
+                unionCursorBounds(i, drawnX, x);
+            }
+
+            // Marks between old and new ceil(lower) / floor(higher) flipped.
+            final int threshold = selectedThreshold(i, index);
+            if ((i & 1) == 0) {
+                unionFlippedMarks(mDrawnThresholdArray[i], threshold);
+            } else {
+                unionFlippedMarks(mDrawnThresholdArray[i] + 1, threshold + 1);
+            }
+        }
+    }
+
+    private void unionCursorBounds(int cursor, float fromX, float toX) {
+        final SeekbarGeometry geometry = mGeometry;
+        if (geometry == null) {
+            return;
+        }
+
+        final float halfWidth = geometry.getCursorWidth(cursor) / 2f;
+        final float centerY = geometry.getTrackCenterY();
+        final float halfHeight = Math.max(geometry.getCursorHeight(cursor),
+                (int) (geometry.getTrackBottom() - geometry.getTrackTop())) / 2f;
+
+        int top = (int) (centerY - halfHeight) - 1;
+        if (!Float.isNaN(mHistogramTop)) {
+            top = Math.min(top, (int) mHistogramTop - 1);
+        }
+
+        unionDirty((int) (Math.min(fromX, toX) - halfWidth) - 1, top,
+                (int) (Math.max(fromX, toX) + halfWidth) + 2,
+                (int) (centerY + halfHeight) + 2);
+    }
+
+    /**
+     * Union click areas of visible marks with index in [from, to) or [to,
+     * from).
+     */
+    private void unionFlippedMarks(int from, int to) {
+        if (from == to || mGeometry == null) {
+            return;
+        }
+
+        final int low = Math.min(from, to);
+        final int high = Math.max(from, to) - 1;
+        final MarkLayout layout = mMarkLayout;
+        final int first = layout.lowerBoundVisible(labelCeil(low));
+        final int last = layout.lowerBoundVisible(labelFloor(high) + 1) - 1;
+        final int bottom = (int) mGeometry.getTrackTop();
+        for (int n = first; n <= last; n++) {
+            final int i = layout.getVisibleIndex(n);
+            unionDirty(layout.getClickLeft(i) - mMarkMargin,
+                    layout.getClickTop(), layout.getClickRight(i)
+                            + mMarkMargin, bottom);
+        }
+    }
+
+    public boolean isDirtyEmpty() {
+        return mDirtyLeft >= mDirtyRight || mDirtyTop >= mDirtyBottom;
+    }
+
+    public int getDirtyLeft() {
+        return mDirtyLeft;
+    }
+
+    public int getDirtyTop() {
+        return mDirtyTop;
+    }
+
+    public int getDirtyRight() {
+        return mDirtyRight;
+    }
+
+    public int getDirtyBottom() {
+        return mDirtyBottom;
+    }
+
+    /**
+     * Estimated bytes of arrays, see {@link MemoryFootprint}.
+     */
+    public long getMemoryFootprint() {
+        return MemoryFootprint.of(mDrawnXArray)
+                + MemoryFootprint.of(mDrawnCursorLeftArray)
+                + MemoryFootprint.of(mDrawnThresholdArray)
+                + MemoryFootprint.of(mPointerXArray)
+                + MemoryFootprint.of(mGrabOffsetArray)
+                + MemoryFootprint.of(mPredictionArray);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Immutable geometry of {@link RangeSeekbar} for one size and one
+ * configuration: track, click band of text marks and extents of cursors.
+ * A new one is built when size or configuration really changes, then draw
+ * and touch code only read it.
+ * <p>
+ * Cursor 2n uses extents of the left cursor and cursor 2n + 1 uses the
+ * right one, like their backgrounds.
+ */
+public final class SeekbarGeometry {
+
+    private final int mWidth;
+
+    private final float mTrackLeft;
+    private final float mTrackTop;
+    private final float mTrackRight;
+    private final float mTrackBottom;
+    private final float mTrackCenterY;
+
+    /**
+     * Right edge of the last text mark.
+     */
+    private final float mLastTextRight;
+
+    private final int mClickTop;
+    private final int mClickBottom;
+
+    private final int mLeftCursorWidth;
+    private final int mLeftCursorHeight;
+    private final int mLeftCursorTop;
+    private final int mRightCursorWidth;
+    private final int mRightCursorHeight;
+    private final int mRightCursorTop;
+
+    /**
+     * @param width
+     *            width of view.
+     * @param textSize
+     *            height of text marks above the track.
+     * @param spaceBetween
+     *            space between text marks and track.
+     */
+    public SeekbarGeometry(int width, int paddingLeft, int paddingTop,
+            int paddingRight, int textSize, int spaceBetween,
+            int seekbarHeight, int leftCursorWidth, int leftCursorHeight,
+            int rightCursorWidth, int rightCursorHeight) {
+        mWidth = width;
+
+        mTrackLeft = paddingLeft + leftCursorWidth / 2;
+        mTrackRight = width - paddingRight - rightCursorWidth / 2;
+        mTrackTop = paddingTop + textSize + spaceBetween;
+        mTrackBottom = mTrackTop + seekbarHeight;
+        mTrackCenterY = mTrackTop + seekbarHeight / 2;
+
+        mLastTextRight = mTrackRight + rightCursorWidth / 2;
+        mClickTop = paddingTop;
+        mClickBottom = paddingTop + textSize + spaceBetween + seekbarHeight;
+
+        mLeftCursorWidth = leftCursorWidth;
+        mLeftCursorHeight = leftCursorHeight;
+        mLeftCursorTop = (int) (mTrackCenterY - leftCursorHeight / 2);
+        mRightCursorWidth = rightCursorWidth;
+        mRightCursorHeight = rightCursorHeight;
+        mRightCursorTop = (int) (mTrackCenterY - rightCursorHeight / 2);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public float getTrackLeft() {
+        return mTrackLeft;
+    }
+
+    public float getTrackTop() {
+        return mTrackTop;
+    }
+
+    public float getTrackRight() {
+        return mTrackRight;
+    }
+
+    public float getTrackBottom() {
+        return mTrackBottom;
+    }
+
+    public float getTrackLength() {
+        return mTrackRight - mTrackLeft;
+    }
+
+    public float getTrackCenterY() {
+        return mTrackCenterY;
+    }
+
+    public float getLastTextRight() {
+        return mLastTextRight;
+    }
+
+    public int getClickTop() {
+        return mClickTop;
+    }
+
+    public int getClickBottom() {
+        return mClickBottom;
+    }
+
+    public int getCursorWidth(int cursor) {
+        return (cursor & 1) == 0 ? mLeftCursorWidth : mRightCursorWidth;
+    }
+
+    public int getCursorHeight(int cursor) {
+        return (cursor & 1) == 0 ? mLeftCursorHeight : mRightCursorHeight;
+    }
+
+    /**
+     * Cursors are vertically centered on the track.
+     */
+    public int getCursorTop(int cursor) {
+        return (cursor & 1) == 0 ? mLeftCursorTop : mRightCursorTop;
+    }
+}
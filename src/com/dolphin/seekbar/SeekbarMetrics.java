@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Hook for measuring hot paths of {@link RangeSeekbar}, set by
+ * {@link RangeSeekbar#setMetrics(SeekbarMetrics)}. Nothing is measured
+ * without one. Every method is called on the main thread and should return
+ * fast, see {@link MetricsRecorder} for a recorder with fixed-size
+ * histograms.
+ */
+public interface SeekbarMetrics {
+
+    /**
+     * Time spent in onDraw.
+     */
+    void recordDrawTime(long nanos);
+
+    /**
+     * Time spent handling one ACTION_MOVE event.
+     */
+    void recordTouchMoveTime(long nanos);
+
+    /**
+     * From event time of the first move event not drawn yet, to the onDraw
+     * reflecting it.
+     */
+    void recordTouchToDrawLatency(long millis);
+
+    /**
+     * A region of the seekbar has been invalidated by cursors.
+     * 
+     * @param uptimeMillis
+     *            time of invalidation.
+     */
+    void recordInvalidate(long uptimeMillis);
+
+    /**
+     * Time spent in one call of a listener.
+     */
+    void recordListenerTime(long nanos);
+}
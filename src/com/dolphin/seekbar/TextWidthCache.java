@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+/**
+ * Process-wide LRU cache of measured text marks, keyed by content of marks,
+ * text size and typeface. Seekbars showing the same marks share one
+ * {@link Marks}, so binding another one with the same marks measures
+ * nothing. Thread-safe, marks can be measured ahead of time on a background
+ * thread by {@link #precompute(CharSequence[], float, Typeface, Executor)}.
+ * <p>
+ * A lookup which hits does not allocate.
+ */
+public class TextWidthCache {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private static final TextWidthCache sInstance = new TextWidthCache(
+            DEFAULT_CAPACITY);
+
+    /**
+     * Strings and widths of a measured array of marks. Shared by every
+     * seekbar using it, so arrays must never be modified.
+     */
+    public static final class Marks {
+        private final String[] mTexts;
+        private final float[] mWidths;
+
+        Marks(String[] texts, float[] widths) {
+            mTexts = texts;
+            mWidths = widths;
+        }
+
+        public int getCount() {
+            return mTexts.length;
+        }
+
+        public String getText(int index) {
+            return mTexts[index];
+        }
+
+        public float getWidth(int index) {
+            return mWidths[index];
+        }
+
+        /**
+         * Estimated bytes of strings and widths, shared by every seekbar
+         * using these marks. See {@link MemoryFootprint}.
+         */
+        public long getMemoryFootprint() {
+            return MemoryFootprint.ofStrings(mTexts)
+                    + MemoryFootprint.of(mWidths);
+        }
+
+        String[] texts() {
+            return mTexts;
+        }
+
+        float[] widths() {
+            return mWidths;
+        }
+    }
+
+    /**
+     * Marks of a stored key are Strings owned by the cache. The probe key
+     * used for lookups refers to marks of the caller, and is only used with
+     * the lock held.
+     */
+    private static final class Key {
+        CharSequence[] mMarks;
+        float mTextSize;
+        Typeface mTypeface;
+        int mHash;
+
+        void set(CharSequence[] marks, float textSize, Typeface typeface) {
+            mMarks = marks;
+            mTextSize = textSize;
+            mTypeface = typeface;
+
+            // Same as String.hashCode() of every mark, without toString().
+            int hash = Float.floatToIntBits(textSize) * 31
+                    + (typeface != null ? typeface.hashCode() : 0);
+            for (CharSequence mark : marks) {
+                final int length = mark.length();
+                int h = 0;
+                for (int i = 0; i < length; i++) {
+                    h = 31 * h + mark.charAt(i);
+                }
+                hash = 31 * hash + h;
+            }
+            mHash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key other = (Key) o;
+            if (mHash != other.mHash || mTextSize != other.mTextSize
+                    || mMarks.length != other.mMarks.length) {
+                return false;
+            }
+            if (mTypeface == null ? other.mTypeface != null : !mTypeface
+                    .equals(other.mTypeface)) {
+                return false;
+            }
+            for (int i = 0; i < mMarks.length; i++) {
+                if (!contentEquals(mMarks[i], other.mMarks[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean contentEquals(CharSequence a, CharSequence b) {
+            final int length = a.length();
+            if (length != b.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (a.charAt(i) != b.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Map<Key, Marks> mMap;
+    private final Key mProbe = new Key();
+
+    /**
+     * The cache shared by every seekbar.
+     */
+    public static TextWidthCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * @param capacity
+     *            count of mark arrays kept.
+     */
+    public TextWidthCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Capacity should be more than 0!");
+        }
+
+        mMap = new LinkedHashMap<Key, Marks>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Marks> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Find measured marks, or measure them by paint and keep them.
+     * 
+     * @param paint
+     *            its text size and typeface are part of the key.
+     */
+    public Marks obtain(CharSequence[] marks, Paint paint) {
+        final float textSize = paint.getTextSize();
+        final Typeface typeface = paint.getTypeface();
+        final Marks cached = get(marks, textSize, typeface);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Measure without holding the lock, the first one put wins.
+        final int length = marks.length;
+        final String[] texts = new String[length];
+        final float[] widths = new float[length];
+        for (int i = 0; i < length; i++) {
+            texts[i] = marks[i].toString();
+            widths[i] = paint.measureText(texts[i]);
+        }
+
+        final Key key = new Key();
+        key.set(texts, textSize, typeface);
+        synchronized (this) {
+            final Marks raced = mMap.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            final Marks measured = new Marks(texts, widths);
+            mMap.put(key, measured);
+            return measured;
+        }
+    }
+
+    /**
+     * Cached marks, or null.
+     */
+    public synchronized Marks get(CharSequence[] marks, float textSize,
+            Typeface typeface) {
+        mProbe.set(marks, textSize, typeface);
+        final Marks cached = mMap.get(mProbe);
+        mProbe.mMarks = null;
+        return cached;
+    }
+
+    /**
+     * Measure marks on executor, so that seekbars created later with the
+     * same marks, text size and typeface find them in cache.
+     */
+    public void precompute(CharSequence[] marks, final float textSize,
+            final Typeface typeface, Executor executor) {
+        final CharSequence[] copy = marks.clone();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Paint is not thread-safe, use a private one.
+                final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                paint.setTextSize(textSize);
+                paint.setTypeface(typeface);
+                obtain(copy, paint);
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return mMap.size();
+    }
+
+    public synchronized void clear() {
+        mMap.clear();
+    }
+}
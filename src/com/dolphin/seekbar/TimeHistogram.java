@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Histogram of durations in power-of-two buckets, stored in a fixed-size
+ * primitive array. Recording never allocates, and percentiles are accurate
+ * to a factor of two.
+ */
+public class TimeHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    /**
+     * Bucket b counts values in [2^(b-1), 2^b), bucket 0 counts values not
+     * more than 0.
+     */
+    private final long[] mBuckets = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    public void record(long value) {
+        final int bucket = value <= 0 ? 0 : BUCKET_COUNT
+                - Long.numberOfLeadingZeros(value);
+        mBuckets[Math.min(bucket, BUCKET_COUNT - 1)]++;
+        mCount++;
+        mSum += value;
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public double getMean() {
+        return mCount == 0 ? 0 : (double) mSum / mCount;
+    }
+
+    /**
+     * Upper bound of the bucket containing the given percentile.
+     * 
+     * @param percentile
+     *            from 0 to 100.
+     */
+    public long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(mCount * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets[i];
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(mMax, (1L << i) - 1);
+            }
+        }
+        return mMax;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + mCount + " mean=" + (long) getMean() + " p50="
+                + getPercentile(50) + " p99=" + getPercentile(99) + " max="
+                + mMax;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014 Roy Wang
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dolphin.seekbar;
+
+/**
+ * Short-horizon prediction of x-axis location of pointers, without any
+ * Android dependency. Velocity is fitted by least squares over the last few
+ * samples, so a single noisy sample does not throw the prediction off.
+ * <p>
+ * Samples of every slot are kept in a small ring of primitive arrays, no
+ * allocation happens per sample.
+ */
+public class TouchPredictor {
+
+    /**
+     * Count of samples kept for every slot.
+     */
+    private static final int HISTORY = 4;
+
+    /**
+     * Samples older than this are not used for velocity.
+     */
+    private static final int MAX_SAMPLE_AGE = 40;
+
+    private final int mSlotCount;
+    private final float[] mXArray;
+    private final long[] mTimeArray;
+    private final int[] mSizeArray;
+    private final int[] mNextArray;
+
+    /**
+     * @param slotCount
+     *            count of pointers to follow, e.g. count of cursors.
+     */
+    public TouchPredictor(int slotCount) {
+        if (slotCount < 0) {
+            throw new IllegalArgumentException(
+                    "Count of slots can not less than 0!");
+        }
+
+        mSlotCount = slotCount;
+        mXArray = new float[slotCount * HISTORY];
+        mTimeArray = new long[slotCount * HISTORY];
+        mSizeArray = new int[slotCount];
+        mNextArray = new int[slotCount];
+    }
+
+    public int getSlotCount() {
+        return mSlotCount;
+    }
+
+    /**
+     * Estimated bytes of arrays, see {@link MemoryFootprint}.
+     */
+    public long getMemoryFootprint() {
+        return MemoryFootprint.of(mXArray) + MemoryFootprint.of(mTimeArray)
+                + MemoryFootprint.of(mSizeArray) + MemoryFootprint.of(mNextArray);
+    }
+
+    /**
+     * Forget samples of slot, e.g. when its pointer goes down or up.
+     */
+    public void reset(int slot) {
+        mSizeArray[slot] = 0;
+        mNextArray[slot] = 0;
+    }
+
+    public void addSample(int slot, float x, long timeMillis) {
+        final int i = slot * HISTORY + mNextArray[slot];
+        mXArray[i] = x;
+        mTimeArray[i] = timeMillis;
+        mNextArray[slot] = (mNextArray[slot] + 1) % HISTORY;
+        if (mSizeArray[slot] < HISTORY) {
+            mSizeArray[slot]++;
+        }
+    }
+
+    /**
+     * Velocity of slot in pixels per millisecond, or 0 if there are not
+     * enough recent samples.
+     */
+    public float getVelocity(int slot) {
+        final int size = mSizeArray[slot];
+        if (size < 2) {
+            return 0;
+        }
+
+        final int base = slot * HISTORY;
+        final int newest = base + (mNextArray[slot] + HISTORY - 1) % HISTORY;
+        final long now = mTimeArray[newest];
+
+        // Least squares on (time - now, x - newest x) keeps the sums small.
+        int n = 0;
+        double sumT = 0;
+        double sumX = 0;
+        double sumTT = 0;
+        double sumTX = 0;
+        for (int k = 0; k < size; k++) {
+            final int i = base + k;
+            final long age = now - mTimeArray[i];
+            if (age > MAX_SAMPLE_AGE || age < 0) {
+                continue;
+            }
+            final double t = -age;
+            final double x = mXArray[i] - mXArray[newest];
+            n++;
+            sumT += t;
+            sumX += x;
+            sumTT += t * t;
+            sumTX += t * x;
+        }
+
+        final double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator == 0) {
+            return 0;
+        }
+        return (float) ((n * sumTX - sumT * sumX) / denominator);
+    }
+
+    /**
+     * Predicted x-axis location of slot a while after its newest sample. The
+     * prediction never goes further than the distance covered by the samples
+     * used, so a fling does not overshoot wildly.
+     *
+     * @param windowMillis
+     *            how far to look ahead, 0 means the newest sample.
+     */
+    public float predict(int slot, int windowMillis) {
+        final int size = mSizeArray[slot];
+        if (size == 0) {
+            throw new IllegalStateException("No sample of slot " + slot + "!");
+        }
+
+        final int base = slot * HISTORY;
+        final int newest = base + (mNextArray[slot] + HISTORY - 1) % HISTORY;
+        final float x = mXArray[newest];
+        if (windowMillis <= 0 || size < 2) {
+            return x;
+        }
+
+        final int oldest = base + (size < HISTORY ? 0 : mNextArray[slot]);
+        final float limit = Math.abs(x - mXArray[oldest]);
+        float offset = getVelocity(slot) * windowMillis;
+        if (offset > limit) {
+            offset = limit;
+        } else if (offset < -limit) {
+            offset = -limit;
+        }
+        return x + offset;
+    }
+}